@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * A set of activation ids, backed by a bitset. The bitset only covers the ids between the smallest and the
+ * largest id that have been added since the set was last empty, so that it stays small while the ids of a
+ * streamed document keep growing.
+ */
+public class ActivationIdSet {
+
+    private long[] words = new long[1];
+    private int offset; // The id of the first bit, always a multiple of 64.
+    private int numWords;
+    private int size;
+
+    public boolean add(int id) {
+        if(size == 0) {
+            offset = id & ~63;
+        } else if(id < offset) {
+            growFront(id & ~63);
+        }
+
+        int i = (id - offset) >>> 6;
+        if(i >= words.length) {
+            words = Arrays.copyOf(words, Math.max(i + 1, 2 * words.length));
+        }
+        numWords = Math.max(numWords, i + 1);
+
+        long bit = 1L << id;
+        if((words[i] & bit) != 0) {
+            return false;
+        }
+        words[i] |= bit;
+        size++;
+        return true;
+    }
+
+    private void growFront(int newOffset) {
+        int shift = (offset - newOffset) >>> 6;
+        long[] w = new long[Math.max(words.length, numWords + shift)];
+        System.arraycopy(words, 0, w, shift, numWords);
+        words = w;
+        offset = newOffset;
+        numWords += shift;
+    }
+
+    public boolean remove(int id) {
+        int i = index(id);
+        long bit = 1L << id;
+        if(i < 0 || (words[i] & bit) == 0) {
+            return false;
+        }
+        words[i] &= ~bit;
+        if(--size == 0) {
+            numWords = 0;
+        }
+        return true;
+    }
+
+    public boolean contains(int id) {
+        int i = index(id);
+        return i >= 0 && (words[i] & (1L << id)) != 0;
+    }
+
+    private int index(int id) {
+        if(id < offset) {
+            return -1;
+        }
+        int i = (id - offset) >>> 6;
+        return i < numWords ? i : -1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(words, 0, numWords, 0L);
+        numWords = 0;
+        size = 0;
+    }
+
+    /**
+     * Passes the ids to the action in ascending order.
+     */
+    public void forEach(IntConsumer action) {
+        for(int i = 0; i < numWords; i++) {
+            long w = words[i];
+            while(w != 0) {
+                action.accept(offset + (i << 6) + Long.numberOfTrailingZeros(w));
+                w &= w - 1;
+            }
+        }
+    }
+}
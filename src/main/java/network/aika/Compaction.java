@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.neuron.Neuron;
+import network.aika.neuron.NeuronProvider;
+import network.aika.neuron.Synapse;
+import network.aika.neuron.excitatory.ExcitatoryNeuron;
+import network.aika.neuron.excitatory.PatternNeuron;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static network.aika.neuron.NeuronProvider.SuspensionMode.DISCARD;
+
+/**
+ * Removes synapses whose weight has decayed to zero and neurons whose frequency has become negligible
+ * from the stored neurons of a model. Neurons that have been changed are written back through the
+ * suspension hook. The compaction must not run concurrently with the processing or training of documents.
+ *
+ * Input neurons and blocked neurons are never removed. The label of a removed neuron is removed as well.
+ */
+public class Compaction {
+
+    private final Model model;
+    private final double minFrequency;
+
+    private int synapsesRemoved;
+    private int neuronsRemoved;
+    private long bytesBefore;
+    private long bytesAfter;
+
+    public Compaction(Model model, double minFrequency) {
+        this.model = model;
+        this.minFrequency = minFrequency;
+    }
+
+    public Compaction run() {
+        SuspensionHook sh = model.getSuspensionHook();
+        List<NeuronProvider> providers = model
+                .getAllNeurons()
+                .collect(Collectors.toList());
+
+        Set<NeuronProvider> removedNeurons = providers
+                .stream()
+                .filter(p -> isNegligible(p.getNeuron()))
+                .collect(Collectors.toCollection(TreeSet::new));
+
+        for(NeuronProvider p: providers) {
+            bytesBefore += getStoredSize(sh, p);
+            if(!removedNeurons.contains(p)) {
+                removeSynapses(p.getNeuron(), removedNeurons);
+            }
+        }
+
+        for(NeuronProvider p: removedNeurons) {
+            removeLabel(sh, p);
+            p.suspend(DISCARD);
+            sh.remove(p.getId());
+            model.removeProvider(p);
+            neuronsRemoved++;
+        }
+
+        for(NeuronProvider p: providers) {
+            if(removedNeurons.contains(p)) {
+                continue;
+            }
+            p.save();
+            bytesAfter += getStoredSize(sh, p);
+        }
+        return this;
+    }
+
+    private boolean isNegligible(Neuron<?> n) {
+        return !n.isInputNeuron() &&
+                !n.isBlocked() &&
+                n.getFrequency() < minFrequency;
+    }
+
+    private static void removeLabel(SuspensionHook sh, NeuronProvider p) {
+        Neuron<?> n = p.getNeuron();
+        if(!(n instanceof PatternNeuron)) return;
+
+        String label = ((PatternNeuron) n).getTokenLabel();
+        if(label != null && p.getId().equals(sh.getIdByLabel(label))) {
+            sh.removeLabel(label);
+        }
+    }
+
+    private void removeSynapses(Neuron<?> n, Set<NeuronProvider> removedNeurons) {
+        List<Synapse> synapses = n.getOutputSynapses()
+                .filter(s -> s.isZero() || removedNeurons.contains(s.getPOutput()))
+                .collect(Collectors.toList());
+
+        // Inhibitory neurons do not keep their input synapses, the synapses into a removed inhibitory neuron
+        // are only held by the output synapses of its inputs.
+        if(n instanceof ExcitatoryNeuron) {
+            ((ExcitatoryNeuron) n).getInputSynapses()
+                    .stream()
+                    .filter(s -> s.isZero() || removedNeurons.contains(s.getPInput()))
+                    .forEach(s -> synapses.add(s));
+        }
+
+        synapses.forEach(s -> s.unlink());
+        synapsesRemoved += synapses.size();
+    }
+
+    private static long getStoredSize(SuspensionHook sh, NeuronProvider p) {
+        byte[] data = sh.retrieve(p.getId());
+        return data != null ? data.length : 0;
+    }
+
+    public int getSynapsesRemoved() {
+        return synapsesRemoved;
+    }
+
+    public int getNeuronsRemoved() {
+        return neuronsRemoved;
+    }
+
+    public long getBytesReclaimed() {
+        return bytesBefore - bytesAfter;
+    }
+
+    public String toString() {
+        return "Compaction synapses removed:" + synapsesRemoved +
+                " neurons removed:" + neuronsRemoved +
+                " bytes reclaimed:" + getBytesReclaimed();
+    }
+}
@@ -22,10 +22,27 @@ import network.aika.neuron.activation.Activation;
 import java.util.function.Predicate;
 
 public class Config {
+
+    /**
+     * The round limits and the tolerance growth that also apply to thoughts without a training config.
+     * They stop recurrent feedback that does not settle, but are not meant to cut off a thought that does.
+     */
+    public static final int DEFAULT_MAX_ROUNDS = 100;
+    public static final int DEFAULT_ROUND_BUDGET = Integer.MAX_VALUE;
+    public static final double DEFAULT_TOLERANCE_GROWTH = 1.1;
+
     private Double alpha = null; //0.99;
     private double learnRate;
     private double metaThreshold;
     private Predicate<Activation> maturityCheck;
+    private int gradientTopK = 0; // 0: dense backpropagation
+    private double gradientThreshold = 0.0;
+    private int maxInducedNeurons = Integer.MAX_VALUE;
+    private int maxInducedSynapses = Integer.MAX_VALUE;
+    private int maxBranches = Integer.MAX_VALUE;
+    private int maxRounds = DEFAULT_MAX_ROUNDS;
+    private int roundBudget = DEFAULT_ROUND_BUDGET;
+    private double toleranceGrowth = DEFAULT_TOLERANCE_GROWTH;
 
     public double getLearnRate() {
         return learnRate;
@@ -62,4 +79,104 @@ public class Config {
         this.maturityCheck = maturityCheck;
         return this;
     }
+
+    public int getGradientTopK() {
+        return gradientTopK;
+    }
+
+    /**
+     * Limits the backpropagation of an activation to the k input links with the largest contribution.
+     */
+    public Config setGradientTopK(int gradientTopK) {
+        this.gradientTopK = gradientTopK;
+        return this;
+    }
+
+    public double getGradientThreshold() {
+        return gradientThreshold;
+    }
+
+    /**
+     * Input links whose contribution is below this fraction of the largest contribution of the same
+     * activation are skipped. Only used if the top-k mode is enabled.
+     */
+    public Config setGradientThreshold(double gradientThreshold) {
+        this.gradientThreshold = gradientThreshold;
+        return this;
+    }
+
+    public int getMaxInducedNeurons() {
+        return maxInducedNeurons;
+    }
+
+    /**
+     * The maximum number of neurons that may be induced by a single document.
+     */
+    public Config setMaxInducedNeurons(int maxInducedNeurons) {
+        this.maxInducedNeurons = maxInducedNeurons;
+        return this;
+    }
+
+    public int getMaxInducedSynapses() {
+        return maxInducedSynapses;
+    }
+
+    /**
+     * The maximum number of synapses that may be induced by a single document.
+     */
+    public Config setMaxInducedSynapses(int maxInducedSynapses) {
+        this.maxInducedSynapses = maxInducedSynapses;
+        return this;
+    }
+
+    public int getMaxBranches() {
+        return maxBranches;
+    }
+
+    /**
+     * The maximum number of branches per activation. If the beam is full, the branch with the lowest net
+     * is pruned.
+     */
+    public Config setMaxBranches(int maxBranches) {
+        this.maxBranches = maxBranches;
+        return this;
+    }
+
+    public int getMaxRounds() {
+        return maxRounds;
+    }
+
+    /**
+     * The maximum number of rounds of an activation. Further links and updates of an activation that has
+     * reached this limit are dropped.
+     */
+    public Config setMaxRounds(int maxRounds) {
+        this.maxRounds = maxRounds;
+        return this;
+    }
+
+    public int getRoundBudget() {
+        return roundBudget;
+    }
+
+    /**
+     * The maximum number of additional rounds of all activations of a thought together.
+     */
+    public Config setRoundBudget(int roundBudget) {
+        this.roundBudget = roundBudget;
+        return this;
+    }
+
+    public double getToleranceGrowth() {
+        return toleranceGrowth;
+    }
+
+    /**
+     * The factor by which the tolerance for changes of an activation grows with each round, so that
+     * oscillating activations settle down.
+     */
+    public Config setToleranceGrowth(double toleranceGrowth) {
+        this.toleranceGrowth = toleranceGrowth;
+        return this;
+    }
 }
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.neuron.activation.Activation;
+
+import static network.aika.Config.*;
+import static network.aika.neuron.activation.Activation.TOLERANCE;
+
+/**
+ * Decides whether an activation may start another round and how large a change has to be in order to be
+ * propagated. Recurrent feedback between activations is stopped by the round limit of a single activation,
+ * by the round budget of the whole thought and by a tolerance that grows with each round. Thoughts without a
+ * training config use the defaults of {@link Config}. The controller also keeps the statistics of the rounds of
+ * the thought.
+ */
+public class ConvergenceController {
+
+    private final Thought thought;
+
+    private long rounds;
+    private int maxRound;
+    private long processed;
+    private long reprocessed;
+    private long roundLimitHits;
+
+    public ConvergenceController(Thought thought) {
+        this.thought = thought;
+    }
+
+    public void reset() {
+        rounds = 0;
+        maxRound = 0;
+        processed = 0;
+        reprocessed = 0;
+        roundLimitHits = 0;
+    }
+
+    /**
+     * Returns true if the given activation is not allowed to start another round, either because it has
+     * reached the maximum number of rounds or because the round budget of the thought is exhausted.
+     */
+    public boolean isRoundLimitReached(Activation act) {
+        Config c = thought.getTrainingConfig();
+        int maxRounds = c != null ? c.getMaxRounds() : DEFAULT_MAX_ROUNDS;
+        int roundBudget = c != null ? c.getRoundBudget() : DEFAULT_ROUND_BUDGET;
+
+        if(act.getRound() >= maxRounds || rounds >= roundBudget) {
+            roundLimitHits++;
+            return true;
+        }
+        return false;
+    }
+
+    public void countRound(Activation clonedAct) {
+        rounds++;
+        maxRound = Math.max(maxRound, clonedAct.getRound());
+    }
+
+    public void countProcessed(Activation act) {
+        processed++;
+        if(act.getRound() > 0) {
+            reprocessed++;
+        }
+    }
+
+    /**
+     * Changes smaller than the returned tolerance are not propagated any further.
+     */
+    public double getTolerance(int round) {
+        Config c = thought.getTrainingConfig();
+        double growth = c != null ? c.getToleranceGrowth() : DEFAULT_TOLERANCE_GROWTH;
+        if(growth == 1.0) {
+            return TOLERANCE;
+        }
+        return TOLERANCE * Math.pow(growth, round);
+    }
+
+    /**
+     * The number of rounds that have been started in addition to the initial round of each activation.
+     */
+    public long getRounds() {
+        return rounds;
+    }
+
+    public int getMaxRound() {
+        return maxRound;
+    }
+
+    public long getProcessed() {
+        return processed;
+    }
+
+    /**
+     * The number of times an activation has been processed again in a later round.
+     */
+    public long getReprocessed() {
+        return reprocessed;
+    }
+
+    public long getRoundLimitHits() {
+        return roundLimitHits;
+    }
+
+    /**
+     * Returns true if the thought has settled without being cut off by a round limit.
+     */
+    public boolean isConverged() {
+        return roundLimitHits == 0;
+    }
+
+    public String toString() {
+        return "rounds:" + rounds +
+                " maxRound:" + maxRound +
+                " processed:" + processed +
+                " reprocessed:" + reprocessed +
+                " roundLimitHits:" + roundLimitHits;
+    }
+}
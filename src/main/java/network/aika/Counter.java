@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Accumulator for the frequency statistics of the neurons and the model. The sum is striped across
+ * several cells, so that documents which are trained concurrently do not lose counts.
+ */
+public class Counter {
+
+    private final DoubleAdder sum = new DoubleAdder();
+
+    // Excludes readers and other scale calls while the sum is drained and added back.
+    private final StampedLock lock = new StampedLock();
+
+    public void add(double x) {
+        sum.add(x);
+    }
+
+    /**
+     * Never returns the intermediate state of a concurrent {@code scale} call.
+     */
+    public double get() {
+        long stamp = lock.tryOptimisticRead();
+        double s = sum.sum();
+        if(!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                s = sum.sum();
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return s;
+    }
+
+    /**
+     * Only to be used while there are no concurrent updates, e.g. when a neuron is deserialized.
+     */
+    public void set(double x) {
+        long stamp = lock.writeLock();
+        try {
+            sum.reset();
+            sum.add(x);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * The sum is drained and added back scaled. Counts that are added concurrently are not locked out,
+     * they end up either scaled or unscaled, but are never lost. Readers and other scale calls wait until
+     * the scaled sum has been added back.
+     */
+    public void scale(double f) {
+        long stamp = lock.writeLock();
+        try {
+            double s = sum.sumThenReset();
+            sum.add(s * f);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public String toString() {
+        return "" + get();
+    }
+}
@@ -1,8 +1,8 @@
 package network.aika;
 
-import java.util.HashMap;
 import java.util.Map;
-import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
@@ -11,8 +11,9 @@ public class InMemorySuspensionHook implements SuspensionHook {
 
     private AtomicInteger currentId = new AtomicInteger(0);
 
-    private Map<Long, byte[]> storage = new TreeMap<>();
-    private final Map<String, Long> labels = new HashMap<>();
+    private Map<Long, byte[]> storage = new ConcurrentSkipListMap<>();
+    private final Map<String, Long> labels = new ConcurrentHashMap<>();
+    private volatile byte[] model;
 
     @Override
     public long createId() {
@@ -34,15 +35,35 @@ public class InMemorySuspensionHook implements SuspensionHook {
         return storage.get(id);
     }
 
+    @Override
+    public void remove(long id) {
+        storage.remove(id);
+    }
+
     @Override
     public Long getIdByLabel(String label) {
         return labels.get(label);
     }
 
+    @Override
+    public void removeLabel(String label) {
+        labels.remove(label);
+    }
+
     @Override
     public void storeAllLabels() {
     }
 
+    @Override
+    public void storeModel(byte[] data) {
+        model = data;
+    }
+
+    @Override
+    public byte[] retrieveModel() {
+        return model;
+    }
+
     @Override
     public Stream<Long> getAllIds() {
         return storage.keySet().stream();
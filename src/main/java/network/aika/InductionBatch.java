@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.neuron.Neuron;
+import network.aika.neuron.NeuronProvider;
+import network.aika.neuron.Synapse;
+import network.aika.neuron.activation.Activation;
+import network.aika.neuron.activation.Link;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Collects the neurons and synapses that are induced while a thought is trained. Requests coming from
+ * several activations of the same neuron are merged, so that only a single new neuron is created per
+ * input neuron and neuron type. The candidates are committed at the end of the training step, limited
+ * by the induction rates of the training config.
+ */
+public class InductionBatch {
+
+    private final Thought thought;
+
+    private final Map<NeuronProvider, Map<Class<? extends Neuron>, NeuronCandidate>> neuronCandidates = new TreeMap<>();
+    private final Map<NeuronProvider, Map<NeuronProvider, SynapseCandidate>> synapseCandidates = new TreeMap<>();
+
+    private int inducedNeurons;
+    private int inducedSynapses;
+    private int droppedCandidates;
+
+    public InductionBatch(Thought thought) {
+        this.thought = thought;
+    }
+
+    public void addNeuron(Activation iAct, Class<? extends Neuron> type, Supplier<Neuron> factory) {
+        neuronCandidates
+                .computeIfAbsent(iAct.getNeuronProvider(), n -> new LinkedHashMap<>())
+                .computeIfAbsent(type, t -> new NeuronCandidate(factory))
+                .inputActs.add(iAct);
+    }
+
+    public void addSynapse(Activation iAct, Activation oAct) {
+        if(oAct.getNeuron().getInputSynapse(iAct.getNeuronProvider()) != null) {
+            return;
+        }
+
+        synapseCandidates
+                .computeIfAbsent(iAct.getNeuronProvider(), n -> new TreeMap<>())
+                .putIfAbsent(oAct.getNeuronProvider(), new SynapseCandidate(iAct, oAct));
+    }
+
+    public boolean isEmpty() {
+        return neuronCandidates.isEmpty() && synapseCandidates.isEmpty();
+    }
+
+    public void commit() {
+        Config c = thought.getTrainingConfig();
+
+        neuronCandidates
+                .values()
+                .stream()
+                .flatMap(cands -> cands.values().stream())
+                .forEach(cand -> {
+                    if(inducedNeurons >= c.getMaxInducedNeurons()) {
+                        droppedCandidates++;
+                        return;
+                    }
+                    cand.commit();
+                    inducedNeurons++;
+                });
+        neuronCandidates.clear();
+
+        synapseCandidates
+                .values()
+                .stream()
+                .flatMap(cands -> cands.values().stream())
+                .forEach(cand -> {
+                    if(inducedSynapses >= c.getMaxInducedSynapses()) {
+                        droppedCandidates++;
+                        return;
+                    }
+                    cand.oAct.getNeuron().induceSynapse(cand.iAct, cand.oAct);
+                    inducedSynapses++;
+                });
+        synapseCandidates.clear();
+    }
+
+    public void reset() {
+        neuronCandidates.clear();
+        synapseCandidates.clear();
+        inducedNeurons = 0;
+        inducedSynapses = 0;
+        droppedCandidates = 0;
+    }
+
+    public int getInducedNeurons() {
+        return inducedNeurons;
+    }
+
+    public int getInducedSynapses() {
+        return inducedSynapses;
+    }
+
+    public int getDroppedCandidates() {
+        return droppedCandidates;
+    }
+
+    private class NeuronCandidate {
+        final Supplier<Neuron> factory;
+        final List<Activation> inputActs = new ArrayList<>();
+
+        NeuronCandidate(Supplier<Neuron> factory) {
+            this.factory = factory;
+        }
+
+        void commit() {
+            Neuron n = factory.get();
+            Synapse s = null;
+            for(Activation iAct: inputActs) {
+                Activation oAct = new Activation(thought, n);
+                if(s == null) {
+                    s = n.induceSynapse(iAct, oAct);
+                }
+                Link.link(s, iAct, oAct);
+            }
+        }
+    }
+
+    private static class SynapseCandidate {
+        final Activation iAct;
+        final Activation oAct;
+
+        SynapseCandidate(Activation iAct, Activation oAct) {
+            this.iAct = iAct;
+            this.oAct = oAct;
+        }
+    }
+}
@@ -30,9 +30,7 @@ import network.aika.neuron.excitatory.PatternNeuron;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.DataInput;
-import java.io.DataOutput;
-import java.io.IOException;
+import java.io.*;
 import java.lang.ref.WeakReference;
 import java.lang.reflect.Constructor;
 import java.util.*;
@@ -44,11 +42,16 @@ import java.util.stream.Stream;
  *
  * @author Lukas Molzberger
  */
-public abstract class Model {
+public abstract class Model implements Writable {
 
     private static final Logger log = LoggerFactory.getLogger(Model.class);
 
-    private int N = 0; // needs to be stored
+    public static final byte FORMAT_VERSION = 1;
+
+    private final Counter N = new Counter();
+
+    // The logarithm of the product of all decay factors that have been applied so far.
+    private volatile double logDecay = 0.0;
 
     private static Map<Byte, Class> typeRegistry = new HashMap<>();
 
@@ -106,12 +109,32 @@ public abstract class Model {
                 .map(id -> lookupNeuron(id));
     }
 
-    public void applyMovingAverage(Config trainingConfig) {
+    /**
+     * Removes zero weight synapses and neurons whose frequency is below {@code minFrequency} from the stored neurons.
+     */
+    public Compaction compact(double minFrequency) {
+        return new Compaction(this, minFrequency).run();
+    }
+
+    /**
+     * Decays N right away, but only accumulates the decay factor for the neurons. Each neuron catches up with
+     * the decay it has missed the next time its frequency is accessed.
+     */
+    public synchronized void applyMovingAverage(Config trainingConfig) {
         if(trainingConfig.getAlpha() != null) {
-            N *= trainingConfig.getAlpha();
+            double alpha = trainingConfig.getAlpha();
+            N.scale(alpha);
+            logDecay += Math.log(alpha);
         }
     }
 
+    /**
+     * The accumulated decay is kept as a logarithm, so that it does not underflow over many documents.
+     */
+    public double getLogDecay() {
+        return logDecay;
+    }
+
     private static void registerType(Class clazz) {
         byte type = (byte) typeRegistry.size();
         typeRegistry.put(type, clazz);
@@ -147,12 +170,60 @@ public abstract class Model {
         s.write(out);
     }
 
+    /**
+     * Stores the state of the model that is not part of any neuron together with the labels. The neurons
+     * themselves are stored when they are suspended.
+     */
+    public void store() {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (DataOutputStream dos = new DataOutputStream(baos)) {
+            write(dos);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        suspensionHook.storeModel(baos.toByteArray());
+        suspensionHook.storeAllLabels();
+    }
+
+    /**
+     * Restores the state of the model that has been stored by {@code store}, if there is any.
+     */
+    public void load() {
+        byte[] data = suspensionHook.retrieveModel();
+        if(data == null) return;
+
+        try (DataInputStream dis = new DataInputStream(new ByteArrayInputStream(data))) {
+            readFields(dis, this);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+        out.writeByte(FORMAT_VERSION);
+        out.writeDouble(N.get());
+        out.writeDouble(logDecay);
+    }
+
+    @Override
+    public void readFields(DataInput in, Model m) throws Exception {
+        byte version = in.readByte();
+        if(version > FORMAT_VERSION) {
+            throw new IOException("Unsupported model format version: " + version);
+        }
+
+        N.set(in.readDouble());
+        logDecay = in.readDouble();
+    }
+
     public void addToN(int l) {
-        N += l;
+        N.add(l);
     }
 
-    public int getN() {
-        return N;
+    public double getN() {
+        return N.get();
     }
 
     public NeuronProvider lookupNeuron(Long id) {
@@ -36,11 +36,35 @@ public interface SuspensionHook {
 
     byte[] retrieve(long id);
 
+    /**
+     * Removes the stored neuron. Hooks that do not support the removal of neurons cannot be compacted.
+     */
+    default void remove(long id) {
+        throw new UnsupportedOperationException();
+    }
+
     Stream<Long> getAllIds();
 
     void putLabel(String label, Long id);
 
     Long getIdByLabel(String tokenLabel);
 
+    default void removeLabel(String label) {
+        throw new UnsupportedOperationException();
+    }
+
     void storeAllLabels();
+
+    /**
+     * Stores the state of the model itself, e.g. the token vocabulary, which is not part of any neuron.
+     */
+    default void storeModel(byte[] data) {
+    }
+
+    /**
+     * Returns the data stored by {@code storeModel} or null if there is none.
+     */
+    default byte[] retrieveModel() {
+        return null;
+    }
 }
@@ -20,10 +20,12 @@ package network.aika;
 import network.aika.neuron.Neuron;
 import network.aika.neuron.NeuronProvider;
 import network.aika.neuron.activation.*;
+import network.aika.neuron.inhibitory.InhibitorySynapse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.stream.Collectors;
 
 import static network.aika.Phase.*;
 
@@ -42,6 +44,10 @@ public abstract class Thought {
     private final Deque<Link> linkQueue = new ArrayDeque<>();
 
 
+    private final InductionBatch inductionBatch = new InductionBatch(this);
+
+    private final ConvergenceController convergence = new ConvergenceController(this);
+
     private final TreeSet<Activation> gradientQueue = new TreeSet<>(
             Comparator.<Activation, Fired>comparing(act -> act.getFired())
                     .thenComparing(Activation::getId)
@@ -51,12 +57,31 @@ public abstract class Thought {
 
     private TreeMap<Integer, Activation> activationsById = new TreeMap<>();
 
-    private Map<NeuronProvider, SortedSet<Activation>> actsPerNeuron = null;
+    private final Map<Long, List<Activation>> resultIndex = new HashMap<>();
+
+    private final ActivationIdSet dirtyIds = new ActivationIdSet();
+    private final ActivationIdSet lateIds = new ActivationIdSet();
+
+    private final Map<Integer, ExclusionGroup> exclusionGroups = new HashMap<>();
+    private Map<ExclusionGroup, ConflictSet> conflictSets = null;
+
+    // The statistics of the last call of process.
+    private long finalPhaseUpdates;
+    private long skippedFinalPhaseUpdates;
+    private long pComputations;
+    private long skippedPComputations;
+
+    private long createdBranches;
+    private long prunedBranches;
+    private long supersededRounds;
 
     private Phase phase = INITIAL_LINKING;
 
     private Config trainingConfig;
 
+    private long appliedGradientUpdates;
+    private long prunedGradientUpdates;
+
     public Thought() {
     }
 
@@ -66,26 +91,162 @@ public abstract class Thought {
 
     public abstract int length();
 
+    /**
+     * Clears the activations and queues of this thought, so that it can be reused for the next input.
+     * The collections are retained and the activation and visited ids start over.
+     */
+    public void reset() {
+        activationsQueue.clear();
+        linkQueue.clear();
+        gradientQueue.clear();
+        inductionBatch.reset();
+        convergence.reset();
+        activationsById.clear();
+        resultIndex.clear();
+        dirtyIds.clear();
+        lateIds.clear();
+        exclusionGroups.clear();
+
+        activationIdCounter = 0;
+        visitedIdCounter = 1;
+        appliedGradientUpdates = 0;
+        prunedGradientUpdates = 0;
+        finalPhaseUpdates = 0;
+        skippedFinalPhaseUpdates = 0;
+        pComputations = 0;
+        skippedPComputations = 0;
+        createdBranches = 0;
+        prunedBranches = 0;
+        supersededRounds = 0;
+
+        phase = INITIAL_LINKING;
+    }
+
+    /**
+     * Finalizes the activations that have been added or have received input since the last call. Repeated
+     * calls, for instance while a document is growing, therefore only cost as much as has changed.
+     */
     public void process() {
         phase = FINAL_LINKING;
-        activationsById
-                .values()
-                .forEach(act -> act.updateForFinalPhase());
+        List<Activation> changedActs = takeDirtyActivations();
+
+        // Only activations with late input or a phase dependent bias can change their value in the final
+        // phase, the downstream activations are reached through the activations queue.
+        int updated = 0;
+        for(Activation act: changedActs) {
+            if(lateIds.contains(act.getId()) || act.hasPhaseDependentBias()) {
+                act.updateForFinalPhase();
+                updated++;
+            }
+        }
+        finalPhaseUpdates = updated;
+        skippedFinalPhaseUpdates = activationsById.size() - updated;
 
         processActivations();
 
-        activationsById
-                .values()
+        SortedSet<Integer> pCandidates = new TreeSet<>();
+        changedActs.forEach(act -> act.collectPDependents(pCandidates));
+        takeDirtyActivations().forEach(act -> act.collectPDependents(pCandidates));
+
+        List<Activation> pActs = pCandidates
                 .stream()
+                .map(id -> activationsById.get(id))
+                .filter(Objects::nonNull)
                 .filter(act -> !act.hasBranches())
-                .forEach(act -> act.computeP());
+                .collect(Collectors.toList());
+        conflictSets = new IdentityHashMap<>();
+        pActs.forEach(act -> act.computeP());
+        conflictSets = null;
+        pComputations = pActs.size();
+        skippedPComputations = activationsById.size() - pActs.size();
 
         processActivations();
+        dirtyIds.clear();
+        lateIds.clear();
         phase = null;
     }
 
     public void addActivation(Activation act) {
         activationsById.put(act.getId(), act);
+        markDirty(act);
+    }
+
+    /**
+     * Within the probability pass of {@code process} the conflict set of each inhibitory activation is
+     * only computed once.
+     */
+    public ConflictSet getConflictSet(Activation inhibAct) {
+        ExclusionGroup group = getExclusionGroup(inhibAct);
+        if(conflictSets == null) {
+            return ConflictSet.create(group);
+        }
+        return conflictSets.computeIfAbsent(group, ConflictSet::create);
+    }
+
+    /**
+     * Returns the group of activations competing through the given inhibitory activation. All rounds of the
+     * inhibitory activation share the same group.
+     */
+    public ExclusionGroup getExclusionGroup(Activation inhibAct) {
+        return exclusionGroups.computeIfAbsent(inhibAct.getId(), ExclusionGroup::new);
+    }
+
+    public void markDirty(Activation act) {
+        dirtyIds.add(act.getId());
+    }
+
+    public void markLate(Activation act) {
+        lateIds.add(act.getId());
+    }
+
+    private List<Activation> takeDirtyActivations() {
+        List<Activation> acts = new ArrayList<>(dirtyIds.size());
+        dirtyIds.forEach(id -> {
+            Activation act = activationsById.get(id);
+            if(act != null) {
+                acts.add(act);
+            }
+        });
+        dirtyIds.clear();
+        return acts;
+    }
+
+    /**
+     * Resumes the linking phase if new input arrives after {@code process} has been called.
+     */
+    public void resumeLinking() {
+        if(phase == null) {
+            phase = INITIAL_LINKING;
+        }
+    }
+
+    /**
+     * Removes a final activation from this thought and releases its links, so that it can be garbage collected.
+     */
+    public void retire(Activation act) {
+        if(activationsById.remove(act.getId(), act)) {
+            dirtyIds.remove(act.getId());
+            lateIds.remove(act.getId());
+        }
+        activationsQueue.remove(act);
+        removeFromResultIndex(act);
+        act.getLinks(Direction.OUTPUT)
+                .filter(l -> l.getSynapse() instanceof InhibitorySynapse)
+                .forEach(l -> getExclusionGroup(l.getOutput()).remove(act));
+        exclusionGroups.remove(act.getId());
+        onRetired(act);
+        act.release();
+    }
+
+    protected void onRetired(Activation act) {
+    }
+
+    /**
+     * Called once a new round of an activation is final. The structures of the thought that are indexed by
+     * the activation id already refer to the new round, so the previous round is only counted.
+     */
+    public void onSuperseded(Activation lastRound, Activation act) {
+        supersededRounds++;
     }
 
     public void add(Activation act) {
@@ -126,6 +287,70 @@ public abstract class Thought {
         }
     }
 
+    public void countGradientUpdates(int applied, int pruned) {
+        appliedGradientUpdates += applied;
+        prunedGradientUpdates += pruned;
+    }
+
+    public long getAppliedGradientUpdates() {
+        return appliedGradientUpdates;
+    }
+
+    public long getPrunedGradientUpdates() {
+        return prunedGradientUpdates;
+    }
+
+    public void countCreatedBranch() {
+        createdBranches++;
+    }
+
+    public void countPrunedBranch() {
+        prunedBranches++;
+    }
+
+    public long getCreatedBranches() {
+        return createdBranches;
+    }
+
+    public long getPrunedBranches() {
+        return prunedBranches;
+    }
+
+    public long getSupersededRounds() {
+        return supersededRounds;
+    }
+
+    public long getRoundLimitHits() {
+        return convergence.getRoundLimitHits();
+    }
+
+    /**
+     * The number of activations that have been updated for the final phase by the last call of {@code process}.
+     */
+    public long getFinalPhaseUpdates() {
+        return finalPhaseUpdates;
+    }
+
+    public long getSkippedFinalPhaseUpdates() {
+        return skippedFinalPhaseUpdates;
+    }
+
+    public long getPComputations() {
+        return pComputations;
+    }
+
+    public long getSkippedPComputations() {
+        return skippedPComputations;
+    }
+
+    public InductionBatch getInductionBatch() {
+        return inductionBatch;
+    }
+
+    public ConvergenceController getConvergence() {
+        return convergence;
+    }
+
     public Config getTrainingConfig() {
         return trainingConfig;
     }
@@ -150,52 +375,71 @@ public abstract class Thought {
         return activationsById.size();
     }
 
-    public Set<Activation> getActivations(NeuronProvider n) {
-        return getActivations(n.getNeuron());
+    /**
+     * The number of activations that have been added or have received input since the last call of {@code process}.
+     */
+    public int getNumberOfDirtyActivations() {
+        return dirtyIds.size();
     }
 
-    public Set<Activation> getActivations(Neuron n) {
-        phase = RESULTS;
-        if(actsPerNeuron == null) {
-            actsPerNeuron = getActivationsPerNeuron();
-        }
+    public int getNumberOfLateActivations() {
+        return lateIds.size();
+    }
+
+    public Collection<Activation> getActivations(NeuronProvider n) {
+        List<Activation> acts = resultIndex.get(n.getId());
+        return acts != null ? Collections.unmodifiableList(acts) : Collections.emptyList();
+    }
 
-        Set<Activation> acts = actsPerNeuron.get(n.getProvider());
-        return acts != null ? acts : Collections.emptySet();
+    /**
+     * Returns the active activations of the neuron. The result index is maintained while the activations are
+     * processed, so it can be queried at any time.
+     */
+    public Collection<Activation> getActivations(Neuron n) {
+        return getActivations(n.getProvider());
     }
 
-    private Map<NeuronProvider, SortedSet<Activation>> getActivationsPerNeuron() {
-        Map<NeuronProvider, SortedSet<Activation>> results = new TreeMap<>();
+    /**
+     * Called whenever the ground reference of an activation has been set or extended.
+     */
+    public void onReferenceChanged(Activation act, Reference oldRef) {
+    }
+
+    /**
+     * Called whenever an activation becomes final. The index holds the most recent final round of each
+     * active activation.
+     */
+    public void updateResultIndex(Activation act) {
+        if(!act.isActive()) {
+            removeFromResultIndex(act);
+            return;
+        }
+
+        List<Activation> acts = resultIndex.computeIfAbsent(act.getNeuronProvider().getId(), id -> new ArrayList<>(1));
+        for(int i = 0; i < acts.size(); i++) {
+            if(acts.get(i).getId() == act.getId()) {
+                acts.set(i, act);
+                return;
+            }
+        }
+        acts.add(act);
+    }
 
-        activationsById.values().stream()
-                .filter(act -> act.isActive())
-                .forEach(act -> {
-                    Set<Activation> acts = results.computeIfAbsent(
-                            act.getNeuronProvider(),
-                            n -> new TreeSet<>()
-                    );
-                    acts.add(act);
-                });
+    private void removeFromResultIndex(Activation act) {
+        List<Activation> acts = resultIndex.get(act.getNeuronProvider().getId());
+        if(acts == null) return;
 
-        return results;
+        acts.removeIf(a -> a.getId() == act.getId());
+        if(acts.isEmpty()) {
+            resultIndex.remove(act.getNeuronProvider().getId());
+        }
     }
 
     public void train(Model m) {
         phase = INDUCTION;
-/*
-        long v = createVisitedId();
-        if(trainingConfig.getAlpha() != null) {
-            Set<Neuron> activatedNeurons = new TreeSet<>();
-            getActivations()
-                .stream()
-                .filter(act -> act.isActive())
-                .map(act -> act.getNeuron())
-                .filter(n -> n.checkVisited(v))
-                .forEach(n -> n.applyMovingAverage(trainingConfig));
 
-            m.applyMovingAverage(trainingConfig);
-        }
-*/
+        m.applyMovingAverage(trainingConfig);
+
         m.addToN(length());
         getActivations()
                 .forEach(act ->
@@ -207,6 +451,11 @@ public abstract class Thought {
                         act.getNeuron().train(act)
                 );
 
+        while(!inductionBatch.isEmpty()) {
+            inductionBatch.commit();
+            processLinks();
+        }
+
         processGradients();
 
 //        process();
@@ -33,6 +33,12 @@ import java.util.stream.Stream;
  */
 public abstract class Neuron<S extends Synapse> implements Writable {
 
+    /**
+     * Version 2 added the input and blocked flags and the decay epoch of the frequency. Version 1 had no
+     * version byte, its first byte is the flag of the description label and therefore either 0 or 1.
+     */
+    public static final byte FORMAT_VERSION = 2;
+
     private static final Logger log = LoggerFactory.getLogger(Neuron.class);
 
     volatile long retrievalCount = 0;
@@ -49,9 +55,10 @@ public abstract class Neuron<S extends Synapse> implements Writable {
 
     protected final ReadWriteLock lock = new ReadWriteLock();
 
-    protected double frequency;
-    protected double coveredFactorSum;
-    protected double coveredFactorCount;
+    protected final Counter frequency = new Counter();
+    protected final Counter coveredFactorSum = new Counter();
+    protected final Counter coveredFactorCount = new Counter();
+    private volatile double logDecay;
 
     protected boolean isInputNeuron; // Input Neurons won't be trained!
 
@@ -71,6 +78,7 @@ public abstract class Neuron<S extends Synapse> implements Writable {
         this.descriptionLabel = descriptionLabel;
         this.isInputNeuron = isInputNeuron;
         provider = new NeuronProvider(m, this);
+        logDecay = m.getLogDecay();
         modified = true;
 
         System.out.println(getClass().getSimpleName() + " " + descriptionLabel);
@@ -126,6 +134,10 @@ public abstract class Neuron<S extends Synapse> implements Writable {
         this.modified = modified;
     }
 
+    public boolean isInputNeuron() {
+        return isInputNeuron;
+    }
+
     public boolean isBlocked() {
         return blocked;
     }
@@ -155,16 +167,30 @@ public abstract class Neuron<S extends Synapse> implements Writable {
     }
 
     public void count(Activation act) {
-        frequency += act.isActive() ? 1.0 : 0.0;
+        applyMovingAverage();
+        frequency.add(act.isActive() ? 1.0 : 0.0);
 
-        coveredFactorSum += act.getRangeCoverage();
-        coveredFactorCount += 1.0;
+        coveredFactorSum.add(act.getRangeCoverage());
+        coveredFactorCount.add(1.0);
     }
 
-    public void applyMovingAverage(Config trainingConfig) {
-        Double alpha = trainingConfig.getAlpha();
-        if(alpha != null) {
-            frequency *= alpha;
+    /**
+     * Applies the decay of the model that has been accumulated since this neuron was last accessed. Neurons
+     * that are not touched, e.g. because they are suspended, are not decayed until they are needed again.
+     */
+    public void applyMovingAverage() {
+        double d = getModel().getLogDecay();
+        if(logDecay == d) {
+            return;
+        }
+
+        synchronized (frequency) {
+            // Another thread may already have caught up with a more recent decay.
+            if(d < logDecay) {
+                frequency.scale(Math.exp(d - logDecay));
+                logDecay = d;
+                modified = true;
+            }
         }
     }
 
@@ -186,23 +212,25 @@ public abstract class Neuron<S extends Synapse> implements Writable {
     protected abstract void propagateCost(Activation act);
 
     public double getP() {
-        return frequency / getN();
+        return getFrequency() / getN();
     }
 
     public double getStandardDeviation() {
+        double f = getFrequency();
         return Math.sqrt(
-                new BetaDistribution(frequency + 1.0, (getN() - frequency) + 1.0)
+                new BetaDistribution(f + 1.0, (getN() - f) + 1.0)
                         .getNumericalVariance()
         );
     }
 
     public double getN() {
-        double coveredFactor = coveredFactorSum / coveredFactorCount;
+        double coveredFactor = coveredFactorSum.get() / coveredFactorCount.get();
         return getModel().getN() / coveredFactor;
     }
 
     public double getFrequency() {
-        return frequency;
+        applyMovingAverage();
+        return frequency.get();
     }
 
     public void reactivate() {
@@ -214,6 +242,7 @@ public abstract class Neuron<S extends Synapse> implements Writable {
     @Override
     public void write(DataOutput out) throws IOException {
         out.writeByte(getType());
+        out.writeByte(FORMAT_VERSION);
 
         out.writeBoolean(descriptionLabel != null);
         if(descriptionLabel != null) {
@@ -221,6 +250,8 @@ public abstract class Neuron<S extends Synapse> implements Writable {
         }
 
         out.writeDouble(bias);
+        out.writeBoolean(isInputNeuron);
+        out.writeBoolean(blocked);
 
         for (Synapse s : outputSynapses.values()) {
             if (s.getOutput() != null) {
@@ -230,27 +261,38 @@ public abstract class Neuron<S extends Synapse> implements Writable {
         }
         out.writeBoolean(false);
 
-        out.writeDouble(frequency);
-        out.writeDouble(coveredFactorSum);
-        out.writeDouble(coveredFactorCount);
+        out.writeDouble(getFrequency());
+        out.writeDouble(coveredFactorSum.get());
+        out.writeDouble(coveredFactorCount.get());
+        out.writeDouble(logDecay);
     }
 
     @Override
     public void readFields(DataInput in, Model m) throws Exception {
-        if(in.readBoolean()) {
+        byte version = in.readByte();
+        if(version > FORMAT_VERSION) {
+            throw new IOException("Unsupported neuron format version: " + version);
+        }
+
+        if(version >= 2 ? in.readBoolean() : version == 1) {
             descriptionLabel = in.readUTF();
         }
 
         bias = in.readDouble();
+        if(version >= 2) {
+            isInputNeuron = in.readBoolean();
+            blocked = in.readBoolean();
+        }
 
         while (in.readBoolean()) {
             Synapse syn = m.readSynapse(in);
             outputSynapses.put(syn.getPOutput(), syn);
         }
 
-        frequency = in.readDouble();
-        coveredFactorSum = in.readDouble();
-        coveredFactorCount = in.readDouble();
+        frequency.set(in.readDouble());
+        coveredFactorSum.set(in.readDouble());
+        coveredFactorCount.set(in.readDouble());
+        logDecay = version >= 2 ? in.readDouble() : m.getLogDecay();
     }
 
     public String toString() {
@@ -263,8 +305,9 @@ public abstract class Neuron<S extends Synapse> implements Writable {
 
     public String freqToString() {
         StringBuilder sb = new StringBuilder();
-        sb.append("Pos:" + Utils.round(frequency));
-        sb.append(" Neg:" + Utils.round(getN() - frequency));
+        double f = getFrequency();
+        sb.append("Pos:" + Utils.round(f));
+        sb.append(" Neg:" + Utils.round(getN() - f));
         return sb.toString();
     }
 
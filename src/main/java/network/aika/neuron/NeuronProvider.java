@@ -125,7 +125,7 @@ public class NeuronProvider implements Comparable<NeuronProvider> {
         try (
                 GZIPInputStream gzipis = new GZIPInputStream(bais);
                 DataInputStream dis = new DataInputStream(gzipis);) {
-            getModel().readNeuron(dis, this);
+            neuron = getModel().readNeuron(dis, this);
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
@@ -16,15 +16,16 @@
  */
 package network.aika.neuron.activation;
 
+import network.aika.Config;
 import network.aika.Model;
 import network.aika.Phase;
 import network.aika.Thought;
 import network.aika.Utils;
 import network.aika.neuron.*;
 import network.aika.neuron.excitatory.PatternNeuron;
+import network.aika.neuron.inhibitory.InhibitorySynapse;
 
 import java.util.*;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static network.aika.Phase.*;
@@ -56,6 +57,9 @@ public class Activation implements Comparable<Activation> {
     Map<NeuronProvider, Link> inputLinks;
     NavigableMap<Activation, Link> outputLinks;
 
+    // The input links of a round are shared with the next round until one of them modifies its links.
+    private boolean inputLinksShared;
+
     private boolean isFinal;
 
     private long visited;
@@ -63,6 +67,8 @@ public class Activation implements Comparable<Activation> {
 
     private int round; // Only used as stopping criteria
     private Activation lastRound;
+    // Shared by all rounds of this activation once a second round exists.
+    private Rounds rounds;
 
     private Set<Activation> branches = new TreeSet<>();
     private Activation mainBranch;
@@ -134,7 +140,19 @@ public class Activation implements Comparable<Activation> {
     }
 
     public void setReference(Reference groundRef) {
+        Reference oldRef = this.groundRef;
         this.groundRef = groundRef;
+        thought.onReferenceChanged(this, oldRef);
+    }
+
+    private void propagateReference(Reference ref) {
+        if(ref == null) return;
+
+        Reference oldRef = groundRef;
+        groundRef = groundRef != null ? groundRef.add(ref) : ref;
+        if(groundRef != oldRef) {
+            thought.onReferenceChanged(this, oldRef);
+        }
     }
 
     public Activation getLastRound() {
@@ -162,34 +180,138 @@ public class Activation implements Comparable<Activation> {
 
     public void propagateInput() {
         isFinal = true;
+        thought.updateResultIndex(this);
 
         linkForward();
         thought.processActivations();
     }
 
+    /**
+     * Creates a branch unless the beam of branches of this activation is full and the new branch, with the
+     * given prospective net, would be the weakest one. Otherwise the branch with the lowest net is pruned.
+     */
+    public Activation createBranch(double prospectiveNet) {
+        if(thought.getConvergence().isRoundLimitReached(this)) {
+            thought.countPrunedBranch();
+            return null;
+        }
+
+        Config c = thought.getTrainingConfig();
+        if(c != null) {
+            if(branches.size() >= c.getMaxBranches()) {
+                Activation weakest = branches
+                        .stream()
+                        .min(Comparator.comparingDouble(Activation::getNet))
+                        .orElse(null);
+
+                if(weakest == null || weakest.getNet() >= prospectiveNet) {
+                    thought.countPrunedBranch();
+                    return null;
+                }
+                branches.remove(weakest);
+                thought.retire(weakest);
+                thought.countPrunedBranch();
+            }
+        }
+        return createBranch();
+    }
+
     public Activation createBranch() {
+        thought.countCreatedBranch();
         Activation clonedAct = new Activation(thought.createActivationId(), thought, neuron);
-        clonedAct.round = round + 1;
+        clonedAct.round = getRound() + 1;
+        thought.getConvergence().countRound(clonedAct);
         branches.add(clonedAct);
         clonedAct.mainBranch = this;
+        clonedAct.setReference(groundRef);
         linkClone(clonedAct);
         return clonedAct;
     }
 
+    /**
+     * Returns the activation that this activation is a branch of, or the activation itself.
+     */
+    public Activation getRootBranch() {
+        Activation act = this;
+        while(act.mainBranch != null) {
+            act = act.mainBranch;
+        }
+        return act;
+    }
+
+    /**
+     * Returns a new round of this activation if it is already final. Once the round limit is reached, the
+     * final activation itself is returned and must not be modified any more.
+     */
     public Activation getModifiable() {
         if(!isFinal) return this;
 
+        if(thought.getConvergence().isRoundLimitReached(this)) {
+            return this;
+        }
+
         Activation clonedAct = new Activation(id, thought, neuron);
-        clonedAct.round = round + 1;
+        clonedAct.round = getRound() + 1;
+        thought.getConvergence().countRound(clonedAct);
         clonedAct.lastRound = this;
         clonedAct.value = value;
         clonedAct.sum = sum;
         clonedAct.lateSum = lateSum;
-        linkClone(clonedAct);
+        clonedAct.setReference(groundRef);
+        shareInputLinks(clonedAct);
+
+        if(rounds == null) {
+            rounds = new Rounds();
+        }
+        rounds.current = clonedAct;
+        clonedAct.rounds = rounds;
+
+        if(mainBranch != null) {
+            mainBranch.branches.remove(this);
+            mainBranch.branches.add(clonedAct);
+            clonedAct.mainBranch = mainBranch;
+        }
 
         return clonedAct;
     }
 
+    /**
+     * Returns the most recent round of this activation.
+     */
+    public Activation getCurrentRound() {
+        return rounds != null ? rounds.current : this;
+    }
+
+    /**
+     * The next round starts out with the input links of this round. Their output resolves to the most recent
+     * round, so only the links that are actually modified need to be copied.
+     */
+    private void shareInputLinks(Activation clonedAct) {
+        clonedAct.inputLinks = inputLinks;
+        clonedAct.inputLinksShared = true;
+        inputLinksShared = true;
+    }
+
+    private Map<NeuronProvider, Link> getMutableInputLinks() {
+        if(inputLinksShared) {
+            // The shared links no longer need to refer to the superseded rounds.
+            inputLinks.values().forEach(l -> l.resolveOutput());
+            inputLinks = new TreeMap<>(inputLinks);
+            inputLinksShared = false;
+        }
+        return inputLinks;
+    }
+
+    Link putInputLink(NeuronProvider n, Link l) {
+        return getMutableInputLinks().put(n, l);
+    }
+
+    void removeInputLink(NeuronProvider n, Link l) {
+        if(inputLinks.get(n) == l) {
+            getMutableInputLinks().remove(n);
+        }
+    }
+
     private void linkClone(Activation clonedAct) {
         inputLinks
                 .values()
@@ -215,8 +337,12 @@ public class Activation implements Comparable<Activation> {
         return rangeCoverage;
     }
 
+    public int getRound() {
+        return round;
+    }
+
     public boolean isActive() {
-        return value > 0.0;
+        return getValue() > 0.0;
     }
 
     public double getP() {
@@ -226,8 +352,7 @@ public class Activation implements Comparable<Activation> {
     public boolean isConflicting(long v) {
         return inputLinks.values().stream()
                 .filter(l -> l.isNegative() && !l.isSelfRef())
-                .flatMap(l -> l.getInput().getLinks(INPUT))  // Walk through to the inhib. Activation.
-                .anyMatch(l -> l.getInput().visitedDown != v);
+                .anyMatch(l -> thought.getExclusionGroup(l.getInput()).containsUnvisited(v));
     }
 
     public void linkForward() {
@@ -240,7 +365,7 @@ public class Activation implements Comparable<Activation> {
                             Link.link(l.getSynapse(), this, l.getOutput())
                     );
             lastRound.unlink();
-            lastRound = null;
+            releaseLastRound();
         }
 
         thought.processLinks();
@@ -270,15 +395,6 @@ public class Activation implements Comparable<Activation> {
         }
     }
 
-    public Link connectInducedNeuron(Neuron on) {
-        Activation oAct = new Activation(thought.createActivationId(), thought, on);
-        return Link.link(
-                on.induceSynapse(this, oAct),
-                this,
-                oAct
-        );
-    }
-
     private Activation createActivation(Neuron n) {
         Activation act = new Activation(thought.createActivationId(), thought, n);
         getModel().linkInputRelations(act, INPUT);
@@ -320,24 +436,41 @@ public class Activation implements Comparable<Activation> {
         if(l.isNegative() && l.isSelfRef()) return;
 
         double w = l.getSynapse().getWeight();
-        double s = l.getInput().value * w;
+        double s = l.getInput().getValue() * w;
 
         if(isFinal || l.isNegative()) {
             lateSum += s;
+            thought.markLate(this);
         } else {
             sum += s;
         }
 
-        rangeCoverage += getNeuron().propagateRangeCoverage(l);
+        thought.markDirty(this);
+
+        double rc = getNeuron().propagateRangeCoverage(l);
+        rangeCoverage += rc;
+
+        // The ground reference follows the same links as the range coverage.
+        if(rc > 0.0 && !l.isNegative()) {
+            propagateReference(l.getInput().groundRef);
+        }
 
         checkIfFired(l);
     }
 
+    public boolean hasPhaseDependentBias() {
+        return neuron.getBias(INITIAL_LINKING) != neuron.getBias(FINAL_LINKING);
+    }
+
+    /**
+     * Activations that are already final may have been finalized by an earlier call of {@code process}, so
+     * the final value is compared with their current value instead of the value of the linking phase.
+     */
     public void updateForFinalPhase() {
-        double initialValue = computeValue(INITIAL_LINKING);
+        double currentValue = isFinal ? getValue() : computeValue(INITIAL_LINKING);
         double finalValue = computeValue(FINAL_LINKING);
 
-        if(Math.abs(finalValue - initialValue) > TOLERANCE) {
+        if(Math.abs(finalValue - currentValue) > thought.getConvergence().getTolerance(getRound())) {
             thought.add(getModifiable());
         }
     }
@@ -352,13 +485,52 @@ public class Activation implements Comparable<Activation> {
     public void process() {
         value = computeValue(thought.getPhase());
         isFinal = true;
-        if (lastRound == null || !equals(lastRound)) {
+        thought.updateResultIndex(this);
+        thought.getConvergence().countProcessed(this);
+        if (lastRound == null || Math.abs(getValue() - lastRound.getValue()) > thought.getConvergence().getTolerance(getRound())) {
             linkForward();
+        } else {
+            takeOverOutputLinks();
+            releaseLastRound();
+        }
+    }
+
+    /**
+     * The value has not changed, so the output links of the last round are kept as they are and only
+     * attached to this round.
+     */
+    private void takeOverOutputLinks() {
+        for(Link l: lastRound.outputLinks.values()) {
+            if(outputLinks.containsKey(l.getOutput())) continue;
+
+            l.setInput(this);
+            outputLinks.put(l.getOutput(), l);
+            if(l.getSynapse() instanceof InhibitorySynapse) {
+                thought.getExclusionGroup(l.getOutput()).put(this);
+            }
         }
+        lastRound.outputLinks.clear();
+    }
+
+    /**
+     * Drops the last round once this round is final. The shared input links and the branches are pointed at
+     * this round, so that the last round can be garbage collected. Only links of activations that have been
+     * computed from the last round still refer to it.
+     */
+    private void releaseLastRound() {
+        Activation lr = lastRound;
+        lastRound = null;
+
+        inputLinks.values().forEach(l -> l.resolveOutput());
+
+        lr.branches.forEach(bAct -> bAct.mainBranch = this);
+        branches.addAll(lr.branches);
+        lr.branches.clear();
+        thought.onSuperseded(lr, this);
     }
 
     private double computeValue(Phase phase) {
-        return p *
+        return getP() *
                 neuron.getActivationFunction().f(
                         getNet(phase)
                 );
@@ -373,11 +545,51 @@ public class Activation implements Comparable<Activation> {
                         getNet()
                 );
 
+        Config c = thought.getTrainingConfig();
+        if(c.getGradientTopK() > 0) {
+            propagateSparseGradient(c, g);
+            return;
+        }
+
         inputLinks
                 .values()
                 .forEach(l ->
-                        l.propagateGradient(thought.getTrainingConfig().getLearnRate(), g)
+                        l.propagateGradient(c.getLearnRate(), g)
                 );
+        thought.countGradientUpdates(inputLinks.size(), 0);
+    }
+
+    /**
+     * Only the top-k input links are updated. A link is scored by the larger of its weight update and the
+     * gradient it passes on to its input, so that links with a zero weight are still able to grow.
+     */
+    private void propagateSparseGradient(Config c, double g) {
+        Link[] links = inputLinks.values().toArray(new Link[0]);
+        double[] scores = new double[links.length];
+        double maxScore = 0.0;
+        for(int i = 0; i < links.length; i++) {
+            Link l = links[i];
+            double x = l.getInput() != null ? l.getInput().getValue() : 0.0;
+            scores[i] = Math.abs(g) * Math.max(Math.abs(l.getSynapse().getWeight()), Math.abs(x));
+            maxScore = Math.max(maxScore, scores[i]);
+        }
+
+        double minScore = c.getGradientThreshold() * maxScore;
+        int k = c.getGradientTopK();
+        if(links.length > k) {
+            double[] sorted = scores.clone();
+            Arrays.sort(sorted);
+            minScore = Math.max(minScore, sorted[links.length - k]);
+        }
+
+        int applied = 0;
+        for(int i = 0; i < links.length; i++) {
+            if(applied < k && scores[i] >= minScore) {
+                links[i].propagateGradient(c.getLearnRate(), g);
+                applied++;
+            }
+        }
+        thought.countGradientUpdates(applied, links.length - applied);
     }
 
     public Gradient getMutableGradient() {
@@ -394,37 +606,65 @@ public class Activation implements Comparable<Activation> {
                 .forEach(l -> l.unlink());
     }
 
+    /**
+     * Removes the links of this activation from its input and output activations.
+     */
+    public void release() {
+        inputLinks
+                .values()
+                .stream()
+                .filter(l -> l.getInput() != null && l.getOutput() == this)
+                .forEach(l -> l.getInput().outputLinks.remove(this, l));
+
+        outputLinks
+                .values()
+                .forEach(l -> l.getOutput().removeInputLink(getNeuronProvider(), l));
+
+        inputLinks = new TreeMap<>();
+        inputLinksShared = false;
+        outputLinks.clear();
+    }
+
     public void computeP() {
         if(!isActive()) return;
 
-        double net = getNet();
-        Set<Activation> conflictingActs = branches
-                .stream()
-                .flatMap(bAct -> bAct.inputLinks.values().stream())
-                .filter(l -> l.isNegative())
-                .flatMap(l -> l.getInput().inputLinks.values().stream())  // Walk through to the inhib. Activation.
-                .map(l -> l.getInput())
-                .collect(Collectors.toSet());
+        List<ConflictSet> conflictSets = new ArrayList<>();
+        for(Activation bAct: branches) {
+            for(Link l: bAct.inputLinks.values()) {
+                if(l.isNegative()) {
+                    conflictSets.add(thought.getConflictSet(l.getInput()));  // Walk through to the inhib. Activation.
+                }
+            }
+        }
 
-        double offset = conflictingActs
-                .stream()
-                .mapToDouble(cAct -> cAct.getNet())
-                .min()
-                .getAsDouble();
+        updateP(ConflictSet.softmax(getNet(), ConflictSet.mergeNets(conflictSets)));
+    }
 
-        double norm = Math.exp(net - offset);
-        norm += conflictingActs
-                .stream()
-                .mapToDouble(cAct -> Math.exp(cAct.getNet() - offset))
-                .sum();
+    /**
+     * Collects the ids of the activations whose probability depends on the net of this activation, that is
+     * the activation itself, its main branch and the main branches of the branches it inhibits.
+     */
+    public void collectPDependents(Set<Integer> results) {
+        results.add(id);
+        if(mainBranch != null) {
+            results.add(mainBranch.id);
+        }
 
-        updateP(Math.exp(net - offset) / norm);
+        getLinks(OUTPUT)
+                .map(l -> l.getOutput())
+                .flatMap(iAct -> iAct.getLinks(OUTPUT))
+                .filter(l -> l.isNegative())
+                .map(l -> l.getOutput().mainBranch)
+                .filter(Objects::nonNull)
+                .forEach(bAct -> results.add(bAct.id));
     }
 
     private void updateP(double p) {
-        if(Math.abs(p - getP()) <= TOLERANCE) return;
+        if(Math.abs(p - getP()) <= thought.getConvergence().getTolerance(getRound())) return;
 
         Activation cAct = getModifiable();
+        if(cAct.isFinal()) return; // The round limit has been reached.
+
         cAct.p = p;
 
         thought.add(cAct);
@@ -435,7 +675,7 @@ public class Activation implements Comparable<Activation> {
     }
 
     public boolean equals(Activation act) {
-        return Math.abs(value - act.value) <= TOLERANCE;
+        return Math.abs(getValue() - act.getValue()) <= TOLERANCE;
     }
 
     private Activation getMostRecentFinalActivation() {
@@ -453,10 +693,18 @@ public class Activation implements Comparable<Activation> {
         return null;
     }
 
+    long getVisitedDown() {
+        return visitedDown;
+    }
+
     public boolean hasBranches() {
         return branches.isEmpty();
     }
 
+    public Set<Activation> getBranches() {
+        return Collections.unmodifiableSet(branches);
+    }
+
     public void followDown(long v, Activation originAct, Direction dir) {
         if(visited == v) return;
         visitedDown = v;
@@ -496,14 +744,18 @@ public class Activation implements Comparable<Activation> {
     public String toString() {
         return "Act id:" + getId() + " " +
                 getNeuron().getClass().getSimpleName() + ":" + getDescriptionLabel() +
-                " value:" + Utils.round(value) +
+                " value:" + Utils.round(getValue()) +
                 " net:" + Utils.round(getNet()) +
-                " p:" + Utils.round(p) +
-                " round:" + round;
+                " p:" + Utils.round(getP()) +
+                " round:" + getRound();
     }
 
     @Override
     public int compareTo(Activation act) {
         return Integer.compare(id, act.id);
     }
+
+    private static class Rounds {
+        Activation current;
+    }
 }
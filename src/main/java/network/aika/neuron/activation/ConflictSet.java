@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.neuron.activation;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The competing activations behind an inhibitory activation together with their nets. Within one pass of
+ * probability computations the nets do not change, so a conflict set is computed once per inhibitory
+ * activation and shared by all activations competing through it.
+ */
+public class ConflictSet {
+
+    final Activation[] acts;
+    final double[] nets;
+
+    ConflictSet(Activation[] acts, double[] nets) {
+        this.acts = acts;
+        this.nets = nets;
+    }
+
+    public static ConflictSet create(ExclusionGroup group) {
+        Activation[] acts = new Activation[group.size()];
+        for(int i = 0; i < acts.length; i++) {
+            acts[i] = group.get(i);
+        }
+
+        double[] nets = new double[acts.length];
+        for(int i = 0; i < acts.length; i++) {
+            nets[i] = acts[i].getNet();
+        }
+        return new ConflictSet(acts, nets);
+    }
+
+    /**
+     * Returns the nets of the union of the given conflict sets, each activation is only counted once.
+     */
+    public static double[] mergeNets(List<ConflictSet> sets) {
+        if(sets.size() == 1) {
+            return sets.get(0).nets;
+        }
+
+        Set<Activation> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        int n = 0;
+        for(ConflictSet cs: sets) {
+            n += cs.acts.length;
+        }
+
+        double[] nets = new double[n];
+        n = 0;
+        for(ConflictSet cs: sets) {
+            for(int i = 0; i < cs.acts.length; i++) {
+                if(seen.add(cs.acts[i])) {
+                    nets[n++] = cs.nets[i];
+                }
+            }
+        }
+        return n == nets.length ? nets : Arrays.copyOf(nets, n);
+    }
+
+    /**
+     * Computes {@code exp(net) / (exp(net) + sum(exp(nets)))} in a single pass, the offset of the
+     * exponents is moved along with the running maximum to keep the sum in range.
+     */
+    public static double softmax(double net, double[] nets) {
+        double offset = net;
+        double norm = 1.0;
+        for(double x: nets) {
+            if(x > offset) {
+                norm = norm * Math.exp(offset - x) + 1.0;
+                offset = x;
+            } else {
+                norm += Math.exp(x - offset);
+            }
+        }
+        return Math.exp(net - offset) / norm;
+    }
+}
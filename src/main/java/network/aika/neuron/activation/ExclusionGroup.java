@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.neuron.activation;
+
+import java.util.Arrays;
+
+/**
+ * The activations that compete with each other through one inhibitory activation. The group is updated
+ * whenever a link to the inhibitory activation is formed, so that the competitors can be looked up
+ * without walking the links of the inhibitory activation. There is at most one member per input neuron,
+ * a new round of an activation replaces its predecessor.
+ */
+public class ExclusionGroup {
+
+    private final int inhibActId;
+
+    private Activation[] members = new Activation[4];
+    private int size;
+
+    public ExclusionGroup(int inhibActId) {
+        this.inhibActId = inhibActId;
+    }
+
+    public int getInhibActId() {
+        return inhibActId;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Activation get(int i) {
+        return members[i];
+    }
+
+    void put(Activation act) {
+        for(int i = 0; i < size; i++) {
+            if(members[i].getNeuronProvider() == act.getNeuronProvider()) {
+                members[i] = act;
+                return;
+            }
+        }
+
+        if(size == members.length) {
+            members = Arrays.copyOf(members, 2 * size);
+        }
+        members[size++] = act;
+    }
+
+    public void remove(Activation act) {
+        for(int i = 0; i < size; i++) {
+            if(members[i] == act) {
+                members[i] = members[--size];
+                members[size] = null;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns true if a member has not been reached by the downward traversal {@code v}.
+     */
+    boolean containsUnvisited(long v) {
+        for(int i = 0; i < size; i++) {
+            if(members[i].getVisitedDown() != v) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -78,7 +78,19 @@ public class Link {
     }
 
     public Activation getOutput() {
-        return output;
+        return output.getCurrentRound();
+    }
+
+    /**
+     * Points the link directly at the most recent round of its output, so that it no longer keeps the
+     * superseded rounds reachable.
+     */
+    void resolveOutput() {
+        output = getOutput();
+    }
+
+    void setInput(Activation input) {
+        this.input = input;
     }
 
     public boolean isNegative() {
@@ -86,7 +98,7 @@ public class Link {
     }
 
     public boolean isSelfRef() {
-        return output == input
+        return getOutput() == input
                 .inputLinks
                 .values()
                 .stream()
@@ -101,13 +113,18 @@ public class Link {
                 SortedMap<Activation, Link> outLinks = input.getOutputLinks(synapse);
                 if(!outLinks.isEmpty()) {
                     Activation oAct = outLinks.firstKey();
-                    assert oAct.getId() == output.getId();
+                    // Branches of an activation are linked to the same input as the activation itself.
+                    assert oAct.getRootBranch().getId() == output.getRootBranch().getId();
                 }
             }
 
             input.outputLinks.put(output, this);
+
+            if(synapse instanceof InhibitorySynapse) {
+                output.getThought().getExclusionGroup(output).put(input);
+            }
         }
-        Link ol = output.inputLinks.put(synapse.getPInput(), this);
+        Link ol = output.putInputLink(synapse.getPInput(), this);
         if(ol != null && ol != this) {
             ol.input.outputLinks.remove(ol.output);
         }
@@ -119,11 +136,19 @@ public class Link {
 
     public void process() {
         if(output.isFinal() && isNegative() && !isSelfRef()) {
-            output = output.createBranch();
+            Activation bAct = output.createBranch(output.getNet() + input.getValue() * synapse.getWeight());
+            if(bAct == null) {
+                return;
+            }
+            output = bAct;
         }
 
         if (output.getPhase() != INITIAL_LINKING) {
-            output = output.getModifiable();
+            Activation oAct = output.getModifiable();
+            if(oAct.isFinal()) {
+                return; // The round limit of the output has been reached, the link is dropped.
+            }
+            output = oAct;
         }
 
         output.addLink(this);
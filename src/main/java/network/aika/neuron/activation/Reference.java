@@ -1,4 +1,9 @@
 package network.aika.neuron.activation;
 
 public interface Reference {
+
+    /**
+     * Returns a reference that covers both this and the given reference.
+     */
+    Reference add(Reference ref);
 }
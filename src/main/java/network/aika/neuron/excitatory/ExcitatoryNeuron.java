@@ -75,7 +75,7 @@ public abstract class ExcitatoryNeuron extends Neuron<ExcitatorySynapse> {
                 Link.link(s, iAct, oAct);
                 break;
             case INDUCTION:
-                induceSynapse(iAct, oAct);
+                iAct.getThought().getInductionBatch().addSynapse(iAct, oAct);
                 break;
         }
     }
@@ -122,8 +122,10 @@ public abstract class ExcitatoryNeuron extends Neuron<ExcitatorySynapse> {
 
         if(!act.getLinks(OUTPUT)
                 .anyMatch(l -> l.getSynapse() instanceof InhibitorySynapse)) {
-            act.connectInducedNeuron(
-                    new InhibitoryNeuron(getModel(), "", false)
+            act.getThought().getInductionBatch().addNeuron(
+                    act,
+                    InhibitoryNeuron.class,
+                    () -> new InhibitoryNeuron(getModel(), "", false)
             );
         }
     }
@@ -156,7 +158,7 @@ public abstract class ExcitatoryNeuron extends Neuron<ExcitatorySynapse> {
     }
 
     public void removeInputSynapse(ExcitatorySynapse s) {
-        if(inputSynapses.remove(s) != null) {
+        if(inputSynapses.remove(s.getPInput()) != null) {
             setModified(true);
         }
     }
@@ -167,7 +169,7 @@ public abstract class ExcitatoryNeuron extends Neuron<ExcitatorySynapse> {
     }
 
     public void removeOutputSynapse(Synapse s) {
-        if(outputSynapses.remove(s) != null) {
+        if(outputSynapses.remove(s.getPOutput()) != null) {
             setModified(true);
         }
     }
@@ -82,8 +82,10 @@ public class PatternNeuron extends ExcitatoryNeuron {
 
         if(!act.getLinks(OUTPUT)
                 .anyMatch(l -> l.getSynapse().getOutput() instanceof PatternPartNeuron)) {
-            act.connectInducedNeuron(
-                    new PatternPartNeuron(getModel(), "PP-" + act.getDescriptionLabel(), false)
+            act.getThought().getInductionBatch().addNeuron(
+                    act,
+                    PatternPartNeuron.class,
+                    () -> new PatternPartNeuron(getModel(), "PP-" + act.getDescriptionLabel(), false)
             );
         }
     }
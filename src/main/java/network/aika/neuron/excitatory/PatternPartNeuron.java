@@ -67,8 +67,10 @@ public class PatternPartNeuron extends ExcitatoryNeuron {
 
         if(!act.getLinks(OUTPUT)
                 .anyMatch(l -> l.getSynapse().getOutput() instanceof PatternNeuron)) {
-            act.connectInducedNeuron(
-                    new PatternNeuron(getModel(), "", "P-" + act.getDescriptionLabel(), false)
+            act.getThought().getInductionBatch().addNeuron(
+                    act,
+                    PatternNeuron.class,
+                    () -> new PatternNeuron(getModel(), "", "P-" + act.getDescriptionLabel(), false)
             );
         }
     }
@@ -100,7 +102,7 @@ public class PatternPartNeuron extends ExcitatoryNeuron {
         double pXi = getInputProbability();
         double pXo = getPatternProbability();
 
-        double pXio = frequency / getN();
+        double pXio = getFrequency() / getN();
         double pXioIndep = pXi * pXo;
 
         if (s == Sign.POS) {
@@ -0,0 +1,283 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.text;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A corpus of UTF-8 encoded text files. The files are memory mapped window by window and the words are
+ * decoded and segmented lazily, so that the memory consumption does not depend on the size of the corpus.
+ * A word is a run of letters and is returned in lower case.
+ *
+ * A corpus can be split into parts of roughly equal size for parallel workers. The split points are moved
+ * forward to the next ASCII non-letter byte, so that neither a word nor a multibyte character is cut.
+ */
+public class Corpus {
+
+    public static int DEFAULT_WINDOW_SIZE = 16 * 1024 * 1024;
+
+    private final List<Range> ranges;
+    private final int windowSize;
+
+    public Corpus(File... files) {
+        this(DEFAULT_WINDOW_SIZE, files);
+    }
+
+    /**
+     * @param windowSize the number of bytes that are mapped at once, at least four.
+     */
+    public Corpus(int windowSize, File... files) {
+        this.windowSize = windowSize;
+        ranges = new ArrayList<>();
+        for(File f: files) {
+            if(f.isDirectory()) {
+                File[] children = f.listFiles();
+                Arrays.sort(children);
+                for(File c: children) {
+                    if(c.isFile()) {
+                        ranges.add(new Range(c, 0, c.length()));
+                    }
+                }
+            } else {
+                ranges.add(new Range(f, 0, f.length()));
+            }
+        }
+    }
+
+    private Corpus(int windowSize, List<Range> ranges) {
+        this.windowSize = windowSize;
+        this.ranges = ranges;
+    }
+
+    public long size() {
+        return ranges.stream().mapToLong(r -> r.end - r.begin).sum();
+    }
+
+    /**
+     * Returns the words of this corpus. The stream holds an open file channel and should be closed.
+     */
+    public Stream<String> words() {
+        WordIterator it = new WordIterator();
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(it, Spliterator.ORDERED | Spliterator.NONNULL),
+                false
+        ).onClose(it::close);
+    }
+
+    public List<Corpus> split(int n) throws IOException {
+        long total = size();
+        List<Corpus> parts = new ArrayList<>();
+        List<Range> current = new ArrayList<>();
+        long pos = 0;
+        int part = 1;
+        for(Range r: ranges) {
+            long begin = r.begin;
+            while(part < n && pos + (r.end - begin) > part * total / n) {
+                long splitPoint = align(r.file, begin + (part * total / n - pos), r.end);
+                if(splitPoint > begin) {
+                    current.add(new Range(r.file, begin, splitPoint));
+                }
+                pos += splitPoint - begin;
+                begin = splitPoint;
+
+                parts.add(new Corpus(windowSize, current));
+                current = new ArrayList<>();
+                part++;
+            }
+            if(begin < r.end) {
+                current.add(new Range(r.file, begin, r.end));
+            }
+            pos += r.end - begin;
+        }
+        parts.add(new Corpus(windowSize, current));
+        return parts;
+    }
+
+    private static long align(File f, long offset, long end) throws IOException {
+        try (FileChannel ch = FileChannel.open(f.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buf = ByteBuffer.allocate(256);
+            while(offset < end) {
+                buf.clear();
+                int l = ch.read(buf, offset);
+                if(l <= 0) {
+                    break;
+                }
+                for(int i = 0; i < l; i++) {
+                    byte b = buf.get(i);
+                    if(b >= 0 && !Character.isLetter((char) b)) {
+                        return Math.min(offset + i, end);
+                    }
+                }
+                offset += l;
+            }
+            return end;
+        }
+    }
+
+    private static class Range {
+        final File file;
+        final long begin;
+        final long end;
+
+        Range(File file, long begin, long end) {
+            this.file = file;
+            this.begin = begin;
+            this.end = end;
+        }
+    }
+
+    private class WordIterator implements Iterator<String> {
+
+        private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+        private final CharBuffer chars = CharBuffer.allocate(8192);
+        private final StringBuilder word = new StringBuilder();
+
+        private int rangeIndex = -1;
+        private Range range;
+        private FileChannel channel;
+        private long pos;
+        private MappedByteBuffer window;
+
+        private String next;
+
+        WordIterator() {
+            chars.flip();
+        }
+
+        @Override
+        public boolean hasNext() {
+            if(next == null) {
+                next = nextWord();
+            }
+            return next != null;
+        }
+
+        @Override
+        public String next() {
+            if(!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            String w = next;
+            next = null;
+            return w;
+        }
+
+        private String nextWord() {
+            while(true) {
+                while(chars.hasRemaining()) {
+                    char c = chars.get();
+                    if(Character.isLetter(c)) {
+                        word.append(Character.toLowerCase(c));
+                    } else if(word.length() > 0) {
+                        return takeWord();
+                    }
+                }
+
+                if(window == null && range != null && pos >= range.end && word.length() > 0) {
+                    return takeWord();
+                }
+
+                try {
+                    if(!decode()) {
+                        return word.length() > 0 ? takeWord() : null;
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+
+        private String takeWord() {
+            String w = word.toString();
+            word.setLength(0);
+            return w;
+        }
+
+        /**
+         * Refills the char buffer from the current window, maps the next window or opens the next range.
+         * Returns false if the corpus is exhausted.
+         */
+        private boolean decode() throws IOException {
+            while(true) {
+                if(window != null) {
+                    chars.clear();
+                    boolean last = pos + window.limit() >= range.end;
+                    CoderResult cr = decoder.decode(window, chars, last);
+                    if(cr.isUnderflow()) {
+                        // Either the window is exhausted or only an incomplete character remains, which is
+                        // decoded again at the beginning of the next window.
+                        if(last) {
+                            decoder.flush(chars);
+                        }
+                        pos += window.position();
+                        window = null;
+                    }
+                    chars.flip();
+
+                    if(chars.hasRemaining()) {
+                        return true;
+                    }
+                    continue;
+                }
+
+                if(range != null && pos < range.end) {
+                    window = channel.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(windowSize, range.end - pos));
+                    continue;
+                }
+
+                close();
+                if(++rangeIndex >= ranges.size()) {
+                    return false;
+                }
+
+                range = ranges.get(rangeIndex);
+                channel = FileChannel.open(range.file.toPath(), StandardOpenOption.READ);
+                pos = range.begin;
+                decoder.reset();
+            }
+        }
+
+        void close() {
+            window = null;
+            if(channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                channel = null;
+            }
+        }
+    }
+}
@@ -26,4 +26,9 @@ public class Cursor {
 
     public Activation nextTokenPPAct;
     public Activation nextTokenIAct;
+
+    public void clear() {
+        nextTokenPPAct = null;
+        nextTokenIAct = null;
+    }
 }
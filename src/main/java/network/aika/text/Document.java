@@ -21,6 +21,17 @@ import network.aika.Thought;
 import network.aika.neuron.Neuron;
 import network.aika.neuron.NeuronProvider;
 import network.aika.neuron.activation.*;
+import network.aika.neuron.excitatory.PatternNeuron;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+import static network.aika.neuron.activation.Fired.NOT_FIRED;
 
 /**
  * The {@code Document} class represents a single document which may be either used for processing a text or as
@@ -30,27 +41,84 @@ import network.aika.neuron.activation.*;
  */
 public class Document extends Thought {
 
-    private final StringBuilder content;
+    private CharSequence content;
 
     private Cursor lastCursor = null;
     private Cursor cursor = null;
 
+    private int windowSize = -1;
+    private Consumer<Activation> retiredActivationCallback;
+    private int contentOffset = 0;
+
+    private final TreeMap<Integer, List<Activation>> actsByBegin = new TreeMap<>();
+    // The number of indexed activations per range length, so that the longest range is known after removals.
+    private final TreeMap<Integer, Integer> rangeLengths = new TreeMap<>();
+
     public Document(String content) {
         this(content, null);
     }
 
     public Document(String content, Config trainingConfig) {
+        this((CharSequence) content, trainingConfig);
+    }
+
+    /**
+     * Wraps the given text without copying it. The text is only copied once it is modified through
+     * {@code append}.
+     */
+    public Document(CharSequence content, Config trainingConfig) {
         super(trainingConfig);
-        this.content = new StringBuilder(content);
+        this.content = content;
+    }
+
+    /**
+     * Wraps single byte (ISO-8859-1) encoded text without copying or decoding it up front.
+     */
+    public Document(ByteBuffer content, Config trainingConfig) {
+        this(new ByteBufferCharSequence(content), trainingConfig);
+    }
+
+    /**
+     * Switches this document into the streaming mode. Each call of {@code processToken} moves a window of
+     * {@code windowSize} characters along the text. Activations whose range lies in front of the window are
+     * retired from the document and the text in front of the window is discarded, so that the memory
+     * consumption stays bounded for inputs of any length.
+     *
+     * @param retiredActivationCallback is called for each activation before it is retired, may be null.
+     */
+    public void setStreaming(int windowSize, Consumer<Activation> retiredActivationCallback) {
+        this.windowSize = windowSize;
+        this.retiredActivationCallback = retiredActivationCallback;
     }
 
+    public boolean isStreaming() {
+        return windowSize >= 0;
+    }
+
+    /**
+     * Only the current and the last cursor are needed, so the two cursor objects are swapped and reused.
+     */
     public void moveCursor() {
+        Cursor c = lastCursor != null ? lastCursor : new Cursor();
+        c.clear();
+
         lastCursor = cursor;
-        cursor = new Cursor();
+        cursor = c;
     }
 
-    public void addActivation(Activation act) {
-        super.addActivation(act);
+    /**
+     * Prepares this document for a new text. The activations are discarded, while the configuration,
+     * including the streaming mode, is kept.
+     */
+    public void reset(CharSequence content) {
+        super.reset();
+
+        this.content = content;
+        contentOffset = 0;
+        actsByBegin.clear();
+        rangeLengths.clear();
+        lastCursor = null;
+        cursor = null;
     }
 
     public void add(Activation act) {
@@ -67,11 +135,18 @@ public class Document extends Thought {
     }
 
     public void append(String txt) {
-        content.append(txt);
+        getMutableContent().append(txt);
+    }
+
+    private StringBuilder getMutableContent() {
+        if(!(content instanceof StringBuilder)) {
+            content = new StringBuilder(content);
+        }
+        return (StringBuilder) content;
     }
 
     public char charAt(int i) {
-        return content.charAt(i);
+        return content.charAt(i - contentOffset);
     }
 
     public String getContent() {
@@ -79,30 +154,116 @@ public class Document extends Thought {
     }
 
     public int length() {
-        return content.length();
+        return contentOffset + content.length();
     }
 
     public String toString() {
         return content.toString();
     }
 
-    private String getText(Integer begin, Integer end) {
-        if(begin != null && end != null) {
-            return content.substring(
-                    Math.max(0, Math.min(begin, length())),
-                    Math.max(0, Math.min(end, length()))
-            );
-        } else {
-            return "";
+    /**
+     * Returns a view of the text range, the characters are not copied.
+     */
+    public CharSequence getText(int begin, int end) {
+        return CharBuffer.wrap(
+                content,
+                Math.max(0, Math.min(begin - contentOffset, content.length())),
+                Math.max(0, Math.min(end - contentOffset, content.length()))
+        );
+    }
+
+    /**
+     * Returns the active activations of the neuron whose range overlaps {@code [begin, end)}.
+     */
+    public List<Activation> getActivations(Neuron n, int begin, int end) {
+        List<Activation> results = new ArrayList<>();
+        for(Activation act: getActivations(begin, end)) {
+            if(act.getNeuron() == n && act.isActive()) {
+                results.add(act);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Returns all activations whose range overlaps {@code [begin, end)}, ordered by the begin of their range.
+     * Only the begins within the longest range in front of {@code begin} need to be visited. As long as the
+     * ranges are short compared to the text, the query therefore costs a logarithmic lookup plus the size of
+     * the result. In the worst case, a single range that spans the whole text, every indexed activation in
+     * front of {@code end} is visited.
+     */
+    public List<Activation> getActivations(int begin, int end) {
+        List<Activation> results = new ArrayList<>();
+        int maxRangeLength = rangeLengths.isEmpty() ? 0 : rangeLengths.lastKey();
+        for(List<Activation> acts: actsByBegin.subMap(begin - maxRangeLength, false, end, false).values()) {
+            for(Activation act: acts) {
+                if(((GroundReference) act.getGroundRef()).getEnd() > begin) {
+                    results.add(act);
+                }
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public void onReferenceChanged(Activation act, Reference oldRef) {
+        if(oldRef instanceof GroundReference) {
+            removeFromRangeIndex(act, (GroundReference) oldRef);
         }
+
+        if(act.getGroundRef() instanceof GroundReference) {
+            GroundReference gr = (GroundReference) act.getGroundRef();
+            removeFromRangeIndex(act, gr);
+            actsByBegin.computeIfAbsent(gr.getBegin(), b -> new ArrayList<>(2)).add(act);
+            countRangeLength(gr, 1);
+        }
+    }
+
+    @Override
+    protected void onRetired(Activation act) {
+        if(act.getGroundRef() instanceof GroundReference) {
+            removeFromRangeIndex(act, (GroundReference) act.getGroundRef());
+        }
+    }
+
+    /**
+     * Removes all rounds of the given activation that are indexed at the begin of {@code ref}. The activation
+     * itself is indexed by {@code ref}, the other rounds by their own ground reference.
+     */
+    private void removeFromRangeIndex(Activation act, GroundReference ref) {
+        List<Activation> acts = actsByBegin.get(ref.getBegin());
+        if(acts == null) return;
+
+        for(Iterator<Activation> it = acts.iterator(); it.hasNext();) {
+            Activation a = it.next();
+            if(a.getId() == act.getId()) {
+                it.remove();
+                countRangeLength(a == act ? ref : (GroundReference) a.getGroundRef(), -1);
+            }
+        }
+        if(acts.isEmpty()) {
+            actsByBegin.remove(ref.getBegin());
+        }
+    }
+
+    private void countRangeLength(GroundReference ref, int delta) {
+        rangeLengths.merge(ref.getEnd() - ref.getBegin(), delta, (x, y) -> x + y != 0 ? x + y : null);
     }
 
     public static int[] getRange(Activation act) {
+        Reference ref = act.getGroundRef();
+        if(ref instanceof GroundReference) {
+            GroundReference gr = (GroundReference) ref;
+            return new int[] {gr.getBegin(), gr.getEnd()};
+        }
         return null;
     }
 
-    public static String getText(Activation act) {
+    public static CharSequence getText(Activation act) {
         int[] range = getRange(act);
+        if(range == null) {
+            return "";
+        }
         return ((Document)act.getThought()).getText(range[0], range[1]);
     }
 
@@ -123,15 +284,121 @@ public class Document extends Thought {
     }
 
     public Activation processToken(TextModel m, int begin, int end, String tokenLabel) {
+        return processToken(m.lookupToken(tokenLabel), begin, end);
+    }
+
+    /**
+     * Processes a batch of tokens. All token neurons are resolved up front, before the first token is processed.
+     */
+    public Activation[] processTokens(TextModel m, String[] tokenLabels, int[] begins, int[] ends) {
+        return processTokens(m.lookupTokens(tokenLabels), begins, ends);
+    }
+
+    public Activation[] processTokens(TextModel m, int[] tokenIds, int[] begins, int[] ends) {
+        return processTokens(m.lookupTokens(tokenIds), begins, ends);
+    }
+
+    public Activation[] processTokens(PatternNeuron[] tokens, int[] begins, int[] ends) {
+        Activation[] tokenActs = new Activation[tokens.length];
+        for(int i = 0; i < tokens.length; i++) {
+            tokenActs[i] = processToken(tokens[i], begins[i], ends[i]);
+        }
+        return tokenActs;
+    }
+
+    /**
+     * Feeds the characters {@code [begin, end)} of this document as tokens. The character neurons are
+     * retrieved by their code points. If {@code maxNGramLength} is greater than one, an input activation
+     * is added for each n-gram of code points ending at the current character as well.
+     */
+    public void processCharacters(TextModel m, int begin, int end, int maxNGramLength) {
+        // The begins of the last code points, the most recent one first.
+        int[] cpBegins = new int[Math.max(maxNGramLength, 1)];
+        int numCodePoints = 0;
+        for(int i = begin; i < end;) {
+            int cp = Character.codePointAt(content, i - contentOffset);
+            int next = i + Character.charCount(cp);
+
+            processToken(m.lookupCharacter(cp), i, next);
+
+            System.arraycopy(cpBegins, 0, cpBegins, 1, cpBegins.length - 1);
+            cpBegins[0] = i;
+            numCodePoints++;
+
+            for(int n = 2; n <= maxNGramLength && n <= numCodePoints && cpBegins[n - 1] >= contentOffset; n++) {
+                int b = cpBegins[n - 1];
+                addInput(m.lookupNGram(content, b - contentOffset, next - contentOffset), b, next);
+            }
+            if(maxNGramLength > 1) {
+                processActivations();
+            }
+            i = next;
+        }
+    }
+
+    public Activation processToken(Neuron tokenN, int begin, int end) {
+        resumeLinking();
         moveCursor();
 
-        Neuron tokenN = m.lookupToken(tokenLabel);
         Activation tokenPatternAct = addInput(tokenN, begin, end);
         processActivations();
 
+        if(isStreaming()) {
+            advanceWindow(end - windowSize);
+        }
+
         return tokenPatternAct;
     }
 
+    private void advanceWindow(int windowBegin) {
+        List<Activation> retiredActs = new ArrayList<>();
+        for(Activation act: getActivations()) {
+            if((act.isFinal() || act.getFired() == NOT_FIRED) && getEnd(act) <= windowBegin && !isLinkedByNextToken(act)) {
+                retiredActs.add(act);
+            }
+        }
+
+        for(Activation act: retiredActs) {
+            if(retiredActivationCallback != null) {
+                retiredActivationCallback.accept(act);
+            }
+            retire(act);
+        }
+
+        // Text that is owned by the caller is left untouched, only a copy made by this document is trimmed.
+        if(windowBegin > contentOffset && content instanceof StringBuilder) {
+            ((StringBuilder) content).delete(0, Math.min(windowBegin - contentOffset, content.length()));
+            contentOffset = windowBegin;
+        }
+    }
+
+    /**
+     * Activations are dated by the end of their text range. The fired timestamp cannot be used, since the
+     * activations fired through the relations between tokens inherit the timestamp of the first token.
+     * Activations without a range are dated by their inputs.
+     */
+    private static int getEnd(Activation act) {
+        if(act.getGroundRef() instanceof GroundReference) {
+            return ((GroundReference) act.getGroundRef()).getEnd();
+        }
+
+        return act.getLinks(Direction.INPUT)
+                .filter(l -> l.getInput() != null && l.getInput().getGroundRef() instanceof GroundReference)
+                .mapToInt(l -> ((GroundReference) l.getInput().getGroundRef()).getEnd())
+                .max()
+                .orElse(Integer.MIN_VALUE);
+    }
+
+    /**
+     * The activations of the current cursor are linked to the next token, even if the window has passed them.
+     */
+    private boolean isLinkedByNextToken(Activation act) {
+        return cursor != null && (
+                (cursor.nextTokenPPAct != null && cursor.nextTokenPPAct.getId() == act.getId()) ||
+                (cursor.nextTokenIAct != null && cursor.nextTokenIAct.getId() == act.getId())
+        );
+    }
+
     public Cursor getLastCursor() {
         return lastCursor;
     }
@@ -156,5 +423,18 @@ public class Document extends Thought {
         public int getEnd() {
             return end;
         }
+
+        @Override
+        public Reference add(Reference ref) {
+            GroundReference gr = (GroundReference) ref;
+            if(gr.begin >= begin && gr.end <= end) {
+                return this;
+            }
+            return new GroundReference(Math.min(begin, gr.begin), Math.max(end, gr.end));
+        }
+
+        public String toString() {
+            return "[" + begin + "," + end + "]";
+        }
     }
 }
@@ -0,0 +1,285 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.text;
+
+import network.aika.neuron.excitatory.PatternNeuron;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Processes a stream of documents in three pipelined stages, each running on its own thread:
+ * <ol>
+ *     <li>tokenization and the resolution of the token neurons,</li>
+ *     <li>linking, that is feeding the tokens into the document and processing it,</li>
+ *     <li>the extraction of the results, which are handed to the sink.</li>
+ * </ol>
+ * While one document is linked, the next one is already tokenized and the results of the previous one are
+ * extracted. The stages are connected by bounded queues, so {@code submit} blocks if the pipeline is full.
+ *
+ * @param <R> the result type of the extraction stage
+ */
+public class DocumentPipeline<R> implements AutoCloseable {
+
+    private static final Job POISON = new Job(null);
+
+    private final TextModel model;
+    private final Tokenizer tokenizer;
+    private final Function<Document, R> extractor;
+    private final Consumer<R> sink;
+
+    private final BlockingQueue<Job> inputQueue;
+    private final BlockingQueue<Job> linkQueue;
+    private final BlockingQueue<Job> extractQueue;
+
+    private final Stage tokenizeStage = new Stage("tokenize");
+    private final Stage linkStage = new Stage("link");
+    private final Stage extractStage = new Stage("extract");
+
+    private final List<Thread> threads = new ArrayList<>();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private volatile boolean closed;
+
+    public DocumentPipeline(TextModel model, Tokenizer tokenizer, Function<Document, R> extractor, Consumer<R> sink, int queueCapacity) {
+        this.model = model;
+        this.tokenizer = tokenizer;
+        this.extractor = extractor;
+        this.sink = sink;
+
+        inputQueue = new ArrayBlockingQueue<>(queueCapacity);
+        linkQueue = new ArrayBlockingQueue<>(queueCapacity);
+        extractQueue = new ArrayBlockingQueue<>(queueCapacity);
+
+        start(tokenizeStage, inputQueue, linkQueue, this::tokenize);
+        start(linkStage, linkQueue, extractQueue, this::link);
+        start(extractStage, extractQueue, null, this::extract);
+    }
+
+    /**
+     * Enqueues a text for processing, blocks while the pipeline is full. Submitting is synchronized with
+     * {@code close}, so that no text can be enqueued behind the poison job.
+     */
+    public synchronized void submit(CharSequence text) throws InterruptedException {
+        if(closed) {
+            throw new IllegalStateException("The pipeline is closed.");
+        }
+        inputQueue.put(new Job(text));
+    }
+
+    private void tokenize(Job job) {
+        List<String> labels = new ArrayList<>();
+        List<int[]> ranges = new ArrayList<>();
+        tokenizer.tokenize(job.text, (begin, end, label) -> {
+            labels.add(label);
+            ranges.add(new int[] {begin, end});
+        });
+
+        job.tokens = model.lookupTokens(labels.toArray(new String[0]));
+        job.begins = new int[ranges.size()];
+        job.ends = new int[ranges.size()];
+        for(int i = 0; i < ranges.size(); i++) {
+            job.begins[i] = ranges.get(i)[0];
+            job.ends[i] = ranges.get(i)[1];
+        }
+    }
+
+    private void link(Job job) {
+        job.doc = new Document(job.text, null);
+        job.doc.processTokens(job.tokens, job.begins, job.ends);
+        job.doc.process();
+    }
+
+    private void extract(Job job) {
+        sink.accept(extractor.apply(job.doc));
+    }
+
+    /**
+     * An interrupted stage is treated like a failed one: it skips the remaining documents, but keeps draining
+     * its queue until the poison job arrives, so that neither {@code submit} nor {@code close} block. The
+     * poison job is always forwarded to the next stage.
+     */
+    private void start(Stage stage, BlockingQueue<Job> in, BlockingQueue<Job> out, Consumer<Job> task) {
+        Thread t = new Thread(() -> {
+            try {
+                while(true) {
+                    Job job;
+                    try {
+                        job = in.take();
+                    } catch (InterruptedException e) {
+                        failure.compareAndSet(null, e);
+                        continue;
+                    }
+                    if(job == POISON) {
+                        return;
+                    }
+
+                    if(failure.get() == null) {
+                        long start = System.nanoTime();
+                        try {
+                            task.accept(job);
+                        } catch (Throwable e) {
+                            failure.compareAndSet(null, e);
+                        }
+                        stage.record(System.nanoTime() - start);
+                    }
+
+                    if(out != null && failure.get() == null) {
+                        put(out, job);
+                    }
+                }
+            } finally {
+                if(out != null) {
+                    put(out, POISON);
+                }
+            }
+        }, "document-pipeline-" + stage.name);
+        t.setDaemon(true);
+        threads.add(t);
+        t.start();
+    }
+
+    private void put(BlockingQueue<Job> queue, Job job) {
+        while(true) {
+            try {
+                queue.put(job);
+                return;
+            } catch (InterruptedException e) {
+                failure.compareAndSet(null, e);
+            }
+        }
+    }
+
+    /**
+     * Waits until all submitted documents have passed the pipeline. If a stage has failed, the first
+     * failure is rethrown; the documents submitted after the failure are skipped. An interrupt of the
+     * calling thread does not cut the wait short, its interrupt status is restored before returning.
+     */
+    @Override
+    public synchronized void close() {
+        boolean interrupted = false;
+        if(!closed) {
+            closed = true;
+            while(true) {
+                try {
+                    inputQueue.put(POISON);
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            for(Thread t: threads) {
+                while(t.isAlive()) {
+                    try {
+                        t.join();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            }
+        }
+        if(interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        Throwable e = failure.get();
+        if(e instanceof RuntimeException) {
+            throw (RuntimeException) e;
+        } else if(e instanceof Error) {
+            throw (Error) e;
+        } else if(e != null) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public Stage getTokenizeStage() {
+        return tokenizeStage;
+    }
+
+    public Stage getLinkStage() {
+        return linkStage;
+    }
+
+    public Stage getExtractStage() {
+        return extractStage;
+    }
+
+    public String toString() {
+        return tokenizeStage + "\n" + linkStage + "\n" + extractStage;
+    }
+
+    private static class Job {
+        final CharSequence text;
+
+        PatternNeuron[] tokens;
+        int[] begins;
+        int[] ends;
+        Document doc;
+
+        Job(CharSequence text) {
+            this.text = text;
+        }
+    }
+
+    /**
+     * The latency statistics of a single stage.
+     */
+    public static class Stage {
+        private final String name;
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        Stage(String name) {
+            this.name = name;
+        }
+
+        void record(long nanos) {
+            count.incrementAndGet();
+            totalNanos.addAndGet(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getCount() {
+            return count.get();
+        }
+
+        public double getMeanLatencyMillis() {
+            long c = count.get();
+            return c > 0 ? totalNanos.get() / (c * 1000000.0) : 0.0;
+        }
+
+        public double getMaxLatencyMillis() {
+            return maxNanos.get() / 1000000.0;
+        }
+
+        public String toString() {
+            return name + " docs:" + getCount() +
+                    " mean:" + String.format("%.3f", getMeanLatencyMillis()) + "ms" +
+                    " max:" + String.format("%.3f", getMaxLatencyMillis()) + "ms";
+        }
+    }
+}
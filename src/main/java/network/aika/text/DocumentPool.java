@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.text;
+
+import network.aika.Config;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Recycles documents for workloads with many short texts. A released document is reset and kept for the
+ * next {@code acquire}, so its internal collections do not need to be allocated again.
+ */
+public class DocumentPool {
+
+    private final Deque<Document> free = new ArrayDeque<>();
+    private final int maxSize;
+    private final Config trainingConfig;
+
+    private long created;
+    private long reused;
+
+    public DocumentPool(int maxSize, Config trainingConfig) {
+        this.maxSize = maxSize;
+        this.trainingConfig = trainingConfig;
+    }
+
+    public synchronized Document acquire(CharSequence content) {
+        Document doc = free.pollFirst();
+        if(doc == null) {
+            created++;
+            return new Document(content, trainingConfig);
+        }
+
+        reused++;
+        doc.reset(content);
+        return doc;
+    }
+
+    /**
+     * Returns the document to the pool. The document must not be used by the caller afterwards.
+     */
+    public synchronized void release(Document doc) {
+        if(free.size() < maxSize) {
+            doc.reset("");
+            free.addFirst(doc);
+        }
+    }
+
+    public synchronized long getCreated() {
+        return created;
+    }
+
+    public synchronized long getReused() {
+        return reused;
+    }
+}
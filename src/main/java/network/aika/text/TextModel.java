@@ -19,6 +19,7 @@ package network.aika.text;
 import network.aika.Model;
 import network.aika.SuspensionHook;
 import network.aika.neuron.Neuron;
+import network.aika.neuron.NeuronProvider;
 import network.aika.neuron.Synapse;
 import network.aika.neuron.activation.Activation;
 import network.aika.neuron.activation.Direction;
@@ -30,6 +31,14 @@ import network.aika.neuron.excitatory.PatternPartNeuron;
 import network.aika.neuron.inhibitory.InhibitoryNeuron;
 import network.aika.neuron.inhibitory.InhibitorySynapse;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  *
 * @author Lukas Molzberger
@@ -39,6 +48,16 @@ public class TextModel extends Model {
     public InhibitoryNeuron prevTokenInhib;
     public InhibitoryNeuron nextTokenInhib;
 
+    private static final int TOKEN_LOCK_STRIPES = 64;
+
+    private final TokenVocabulary vocabulary = new TokenVocabulary();
+    private final Object[] tokenLocks = new Object[TOKEN_LOCK_STRIPES];
+
+    public static final int MAX_NGRAM_LENGTH = 3;
+
+    private volatile NeuronProvider[] characters = new NeuronProvider[128];
+    private final Map<Long, NeuronProvider> nGrams = new ConcurrentHashMap<>();
+
     public TextModel() {
         super();
         init();
@@ -50,6 +69,10 @@ public class TextModel extends Model {
     }
 
     private void init() {
+        for(int i = 0; i < tokenLocks.length; i++) {
+            tokenLocks[i] = new Object();
+        }
+
         prevTokenInhib = new InhibitoryNeuron(this, "Prev. Token", false);
         prevTokenInhib.setBlocked(true);
 
@@ -87,9 +110,150 @@ public class TextModel extends Model {
         }
     }
 
+    /**
+     * Resolves the token neurons of a whole batch of tokens. Each distinct label is only looked up once.
+     */
+    public PatternNeuron[] lookupTokens(String[] tokenLabels) {
+        Map<String, PatternNeuron> resolved = new HashMap<>();
+        PatternNeuron[] tokens = new PatternNeuron[tokenLabels.length];
+        for(int i = 0; i < tokenLabels.length; i++) {
+            tokens[i] = resolved.computeIfAbsent(tokenLabels[i], l -> lookupToken(l));
+        }
+        return tokens;
+    }
+
+    public PatternNeuron[] lookupTokens(int[] tokenIds) {
+        PatternNeuron[] tokens = new PatternNeuron[tokenIds.length];
+        for(int i = 0; i < tokenIds.length; i++) {
+            tokens[i] = lookupToken(tokenIds[i]);
+        }
+        return tokens;
+    }
+
+    public PatternNeuron lookupToken(int tokenId) {
+        return vocabulary.getToken(tokenId);
+    }
+
+    /**
+     * Returns the vocabulary id of the token, the token neuron is created if it does not exist yet.
+     */
+    public int getTokenId(String tokenLabel) {
+        int id = vocabulary.getId(tokenLabel);
+        if(id != TokenVocabulary.UNKNOWN) {
+            return id;
+        }
+
+        return vocabulary.add(tokenLabel, lookupToken(tokenLabel).getProvider());
+    }
+
+    /**
+     * Returns the token neuron of a single character. The neuron is the same as the one returned by
+     * {@code lookupToken} for the character's label, but it is retrieved by the code point instead of
+     * the label, so that no string needs to be allocated.
+     */
+    public PatternNeuron lookupCharacter(int codePoint) {
+        NeuronProvider[] cs = characters;
+        if(codePoint < cs.length && cs[codePoint] != null) {
+            return (PatternNeuron) cs[codePoint].getNeuron();
+        }
+
+        PatternNeuron n = lookupToken(new String(Character.toChars(codePoint)));
+        putCharacter(codePoint, n.getProvider());
+        return n;
+    }
+
+    private synchronized void putCharacter(int codePoint, NeuronProvider p) {
+        NeuronProvider[] cs = characters;
+        if(codePoint >= cs.length) {
+            cs = Arrays.copyOf(cs, Math.max(codePoint + 1, 2 * cs.length));
+        }
+        cs[codePoint] = p;
+        characters = cs;
+    }
+
+    /**
+     * Creates the character neurons for the given range of code points in advance.
+     */
+    public void preallocateCharacters(int fromCodePoint, int toCodePoint) {
+        for(int cp = fromCodePoint; cp < toCodePoint; cp++) {
+            lookupCharacter(cp);
+        }
+    }
+
+    /**
+     * Returns the input neuron of the character n-gram {@code text[begin, end)}. N-gram neurons are plain
+     * input neurons without relation neurons, they are keyed by their packed code points and only
+     * allocate a label when they are not cached yet. An n-gram neuron that has been stored before is
+     * retrieved by its label, like a token neuron.
+     */
+    public PatternNeuron lookupNGram(CharSequence text, int begin, int end) {
+        // Each code point is stored as a digit of base 0x110001, so up to three code points fit into the key.
+        long key = 0;
+        int length = 0;
+        for(int i = begin; i < end; length++) {
+            if(length == MAX_NGRAM_LENGTH) {
+                throw new IllegalArgumentException("N-grams are limited to " + MAX_NGRAM_LENGTH + " characters.");
+            }
+
+            int cp = Character.codePointAt(text, i);
+            key = key * 0x110001L + cp + 1;
+            i += Character.charCount(cp);
+        }
+
+        return (PatternNeuron) nGrams.computeIfAbsent(key, k -> {
+            String label = "NGram " + text.subSequence(begin, end);
+            Neuron n = getNeuron(label);
+            if(n != null) {
+                return n.getProvider();
+            }
+
+            PatternNeuron nGram = new PatternNeuron(this, label, label, true);
+            nGram.setBlocked(true);
+            getSuspensionHook().putLabel(label, nGram.getId());
+            return nGram.getProvider();
+        }).getNeuron();
+    }
+
+    public TokenVocabulary getVocabulary() {
+        return vocabulary;
+    }
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+        super.write(out);
+        vocabulary.write(out);
+    }
+
+    @Override
+    public void readFields(DataInput in, Model m) throws Exception {
+        super.readFields(in, m);
+        vocabulary.readFields(in, m);
+    }
+
+    /**
+     * Returns the token neuron for the label and creates it if necessary. The creation of a new token
+     * is serialized per lock stripe of the label, so concurrent documents never create a token twice
+     * while lookups of different labels do not block each other.
+     */
     public PatternNeuron lookupToken(String tokenLabel) {
+        int id = vocabulary.getId(tokenLabel);
+        if(id != TokenVocabulary.UNKNOWN) {
+            return vocabulary.getToken(id);
+        }
+
+        synchronized (tokenLocks[(tokenLabel.hashCode() & 0x7fffffff) % TOKEN_LOCK_STRIPES]) {
+            id = vocabulary.getId(tokenLabel);
+            if(id != TokenVocabulary.UNKNOWN) {
+                return vocabulary.getToken(id);
+            }
+            return createToken(tokenLabel);
+        }
+    }
+
+    private PatternNeuron createToken(String tokenLabel) {
         Neuron inProv = getNeuron(tokenLabel);
         if(inProv != null) {
+            vocabulary.add(tokenLabel, inProv.getProvider());
             return (PatternNeuron) inProv;
         }
 
@@ -155,6 +319,9 @@ public class TextModel extends Model {
             s.update(1.0, false);
         }
 
+        // The token is only published once it is complete, since the vocabulary is read without locking.
+        vocabulary.add(tokenLabel, in.getProvider());
+
         return in;
     }
 
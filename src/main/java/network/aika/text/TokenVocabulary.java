@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.text;
+
+import network.aika.Model;
+import network.aika.Writable;
+import network.aika.neuron.NeuronProvider;
+import network.aika.neuron.excitatory.PatternNeuron;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigns dense integer ids to the token labels of a text model, so that a token neuron can be
+ * retrieved by a plain array access. The vocabulary is a cache in front of the labels of the
+ * suspension hook; it is stored along with the text model to keep the token ids stable across restarts.
+ *
+ * Lookups are lock free, new entries are appended under the vocabulary's monitor and become
+ * visible through the id map only after they have been written to the arrays.
+ */
+public class TokenVocabulary implements Writable {
+
+    public static final int UNKNOWN = -1;
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] labels = new String[64];
+    private volatile NeuronProvider[] tokens = new NeuronProvider[64];
+    private volatile int size;
+
+    public int getId(String label) {
+        Integer id = ids.get(label);
+        return id != null ? id : UNKNOWN;
+    }
+
+    public synchronized int add(String label, NeuronProvider token) {
+        Integer id = ids.get(label);
+        if(id != null) {
+            return id;
+        }
+
+        int newId = size;
+        String[] ls = labels;
+        NeuronProvider[] ts = tokens;
+        if(newId == ts.length) {
+            ls = Arrays.copyOf(ls, 2 * newId);
+            ts = Arrays.copyOf(ts, 2 * newId);
+        }
+        ls[newId] = label;
+        ts[newId] = token;
+        labels = ls;
+        tokens = ts;
+        size = newId + 1;
+
+        ids.put(label, newId);
+        return newId;
+    }
+
+    public PatternNeuron getToken(int id) {
+        checkId(id);
+        return (PatternNeuron) tokens[id].getNeuron();
+    }
+
+    public String getLabel(int id) {
+        checkId(id);
+        return labels[id];
+    }
+
+    private void checkId(int id) {
+        if(id < 0 || id >= size) {
+            throw new IllegalArgumentException("Unknown token id " + id + ", the vocabulary contains " + size + " tokens.");
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public synchronized void write(DataOutput out) throws IOException {
+        out.writeInt(size);
+        for(int i = 0; i < size; i++) {
+            out.writeUTF(labels[i]);
+            out.writeLong(tokens[i].getId());
+        }
+    }
+
+    @Override
+    public synchronized void readFields(DataInput in, Model m) throws IOException {
+        ids.clear();
+        size = 0;
+
+        int n = in.readInt();
+        for(int i = 0; i < n; i++) {
+            String label = in.readUTF();
+            add(label, m.lookupNeuron(in.readLong()));
+        }
+    }
+}
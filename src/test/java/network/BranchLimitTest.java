@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network;
+
+import network.aika.Config;
+import network.aika.Model;
+import network.aika.neuron.activation.Activation;
+import network.aika.neuron.activation.Link;
+import network.aika.neuron.excitatory.ExcitatorySynapse;
+import network.aika.neuron.excitatory.PatternNeuron;
+import network.aika.neuron.excitatory.PatternPartNeuron;
+import network.aika.text.Document;
+import network.aika.text.TextModel;
+import org.junit.jupiter.api.Test;
+
+import static network.aika.Phase.FINAL_LINKING;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BranchLimitTest {
+
+    @Test
+    public void testUnlimitedBranches() {
+        Document doc = new CompetitionFixture(3).process(null);
+        assertTrue(doc.getCreatedBranches() > 3);
+        assertEquals(0, doc.getPrunedBranches());
+    }
+
+    @Test
+    public void testBeam() {
+        Document doc = new CompetitionFixture(3).process(new Config().setMaxBranches(1));
+        assertEquals(3, doc.getCreatedBranches());
+        assertTrue(doc.getPrunedBranches() > 0);
+    }
+
+    @Test
+    public void testBranchesDisabled() {
+        Document doc = new CompetitionFixture(3).process(new Config().setMaxBranches(0));
+        assertEquals(0, doc.getCreatedBranches());
+        assertTrue(doc.getPrunedBranches() > 0);
+    }
+
+    @Test
+    public void testRoundLimit() {
+        Model m = new TextModel();
+        PatternNeuron inA = new PatternNeuron(m, "A", "IN-A", true);
+        PatternNeuron inB = new PatternNeuron(m, "B", "IN-B", true);
+        PatternPartNeuron out = new PatternPartNeuron(m, "OUT", false);
+
+        ExcitatorySynapse sa = new ExcitatorySynapse(inA, out);
+        sa.setPropagate(true);
+        sa.link();
+        sa.update(10.0, false);
+
+        ExcitatorySynapse sb = new ExcitatorySynapse(inB, out);
+        sb.link();
+        sb.update(10.0, false);
+        out.setBias(15.0);
+
+        Document doc = new Document("test", new Config().setMaxRounds(0));
+
+        Activation actA = new Activation(doc, inA);
+        actA.setValue(1.0);
+        actA.propagateInput();
+        doc.process();
+
+        Activation outAct = doc.getActivations()
+                .stream()
+                .filter(act -> act.getNeuron() == out)
+                .findAny()
+                .get();
+        double value = outAct.getValue();
+        double net = outAct.getNet(FINAL_LINKING);
+
+        Activation actB = new Activation(doc, inB);
+        actB.setValue(1.0);
+        actB.propagateInput();
+        Link.link(sb, actB, outAct);
+        doc.processLinks();
+
+        // The output has reached its round limit, so the late link is dropped instead of changing its net.
+        assertTrue(doc.getRoundLimitHits() > 0);
+        assertEquals(value, outAct.getValue());
+        assertEquals(net, outAct.getNet(FINAL_LINKING));
+    }
+}
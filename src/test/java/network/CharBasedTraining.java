@@ -22,11 +22,7 @@ public class CharBasedTraining {
         );
         System.out.println("  " + word);
 
-        for(int i = 0; i < doc.length(); i++) {
-            char c = doc.charAt(i);
-
-            doc.processToken(model, i, i + 1, "" + c);
-        }
+        doc.processCharacters(model, 0, doc.length(), 1);
         doc.process();
 
 //        System.out.println(doc.activationsToString());
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network;
+
+import network.aika.Compaction;
+import network.aika.neuron.Neuron;
+import network.aika.neuron.activation.Activation;
+import network.aika.neuron.excitatory.ExcitatorySynapse;
+import network.aika.neuron.excitatory.PatternNeuron;
+import network.aika.neuron.excitatory.PatternPartNeuron;
+import network.aika.neuron.inhibitory.InhibitoryNeuron;
+import network.aika.neuron.inhibitory.InhibitorySynapse;
+import network.aika.text.Document;
+import network.aika.text.TextModel;
+import org.junit.jupiter.api.Test;
+
+import static network.aika.neuron.NeuronProvider.SuspensionMode.SAVE;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class CompactionTest {
+
+    @Test
+    public void testCompaction() {
+        TextModel m = new TextModel();
+
+        PatternNeuron in = new PatternNeuron(m, "IN", "IN", true);
+        PatternPartNeuron strong = new PatternPartNeuron(m, "STRONG", false);
+        PatternPartNeuron weak = new PatternPartNeuron(m, "WEAK", false);
+        PatternPartNeuron rare = new PatternPartNeuron(m, "RARE", false);
+
+        link(in, strong, 10.0);
+        link(in, weak, 0.0);
+        link(in, rare, 5.0);
+
+        Document doc = new Document("");
+        count(doc, strong);
+        count(doc, weak);
+
+        long rareId = rare.getId();
+        m.suspendAll(SAVE);
+
+        Compaction c = m.compact(0.5);
+        System.out.println(c);
+
+        assertEquals(2, c.getSynapsesRemoved());
+        assertEquals(1, c.getNeuronsRemoved());
+        assertTrue(c.getBytesReclaimed() > 0);
+
+        assertNull(m.getSuspensionHook().retrieve(rareId));
+        assertEquals(1, in.getProvider().getNeuron().getOutputSynapses().count());
+    }
+
+    @Test
+    public void testCompactionOfInhibitoryNeurons() {
+        TextModel m = new TextModel();
+
+        PatternNeuron in = new PatternNeuron(m, "IN", "IN", true);
+        PatternPartNeuron strong = new PatternPartNeuron(m, "STRONG", false);
+        PatternPartNeuron rare = new PatternPartNeuron(m, "RARE", false);
+        InhibitoryNeuron inhib = new InhibitoryNeuron(m, "INHIB", false);
+        InhibitoryNeuron rareInhib = new InhibitoryNeuron(m, "RARE INHIB", false);
+        PatternNeuron rarePattern = new PatternNeuron(m, "RARE PATTERN", "RARE PATTERN", false);
+
+        link(in, strong, 10.0);
+        link(in, rare, 5.0);
+        inhibit(strong, inhib);
+        inhibit(rare, inhib);
+        inhibit(strong, rareInhib);
+        linkNegative(inhib, strong);
+        linkNegative(rareInhib, strong);
+
+        Document doc = new Document("");
+        count(doc, strong);
+        count(doc, inhib);
+
+        m.getSuspensionHook().putLabel("RARE PATTERN", rarePattern.getId());
+        m.suspendAll(SAVE);
+
+        Compaction c = m.compact(0.5);
+        System.out.println(c);
+
+        assertEquals(3, c.getNeuronsRemoved());
+        assertNull(m.getNeuron("RARE PATTERN"));
+
+        PatternPartNeuron s = (PatternPartNeuron) strong.getProvider().getNeuron();
+        assertEquals(2, s.getInputSynapses().size());
+        assertEquals(1L, s.getOutputSynapses().count());
+        assertEquals(inhib.getId(), s.getOutputSynapses().findAny().get().getOutput().getId());
+    }
+
+    private void link(PatternNeuron in, PatternPartNeuron out, double w) {
+        ExcitatorySynapse s = new ExcitatorySynapse(in, out);
+        s.setPropagate(true);
+
+        s.link();
+        s.setWeight(w);
+    }
+
+    private void inhibit(PatternPartNeuron in, InhibitoryNeuron out) {
+        InhibitorySynapse s = new InhibitorySynapse(in, out);
+        s.link();
+        s.setWeight(1.0);
+    }
+
+    private void linkNegative(InhibitoryNeuron in, PatternPartNeuron out) {
+        ExcitatorySynapse s = new ExcitatorySynapse(in, out);
+        s.setNegative(true);
+
+        s.link();
+        s.setWeight(-100.0);
+    }
+
+    private void count(Document doc, Neuron n) {
+        Activation act = new Activation(doc, n);
+        act.setValue(1.0);
+        act.count();
+    }
+}
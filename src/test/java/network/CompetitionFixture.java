@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network;
+
+import network.aika.Config;
+import network.aika.Model;
+import network.aika.neuron.activation.Activation;
+import network.aika.neuron.excitatory.ExcitatorySynapse;
+import network.aika.neuron.excitatory.PatternNeuron;
+import network.aika.neuron.excitatory.PatternPartNeuron;
+import network.aika.neuron.inhibitory.InhibitoryNeuron;
+import network.aika.neuron.inhibitory.InhibitorySynapse;
+import network.aika.text.Document;
+import network.aika.text.TextModel;
+
+/**
+ * A network of pattern part neurons that all receive the same input and inhibit each other. Processing the
+ * input creates branches and several rounds of most activations.
+ */
+public class CompetitionFixture {
+
+    public final Model m;
+    public final PatternNeuron in;
+    public final InhibitoryNeuron inhib;
+
+    public CompetitionFixture(int numCompetitors) {
+        m = new TextModel();
+        in = new PatternNeuron(m, "I", "IN", true);
+        inhib = new InhibitoryNeuron(m, "I", false);
+
+        for(int i = 0; i < numCompetitors; i++) {
+            PatternPartNeuron n = new PatternPartNeuron(m, "C" + i, false);
+            {
+                ExcitatorySynapse s = new ExcitatorySynapse(in, n);
+                s.setPropagate(true);
+
+                s.link();
+                s.update(10.0, false);
+            }
+
+            {
+                ExcitatorySynapse s = new ExcitatorySynapse(inhib, n);
+                s.setNegative(true);
+
+                s.link();
+                s.update(-100.0, true);
+            }
+
+            {
+                InhibitorySynapse s = new InhibitorySynapse(n, inhib);
+                s.link();
+                s.update(1.0, false);
+            }
+            n.setBias(1.0 + 0.1 * i);
+        }
+        inhib.setBias(0.0);
+    }
+
+    public Document process(Config c) {
+        Document doc = new Document("test", c);
+        processInput(doc);
+        return doc;
+    }
+
+    /**
+     * Adds an activation of the input neuron to the given document and processes it.
+     */
+    public void processInput(Document doc) {
+        Activation act = new Activation(doc, in);
+        act.setValue(1.0);
+        act.propagateInput();
+
+        doc.process();
+    }
+}
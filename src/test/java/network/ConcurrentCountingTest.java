@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network;
+
+import network.aika.Counter;
+import network.aika.Model;
+import network.aika.neuron.activation.Activation;
+import network.aika.neuron.excitatory.PatternNeuron;
+import network.aika.text.Document;
+import network.aika.text.TextModel;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+
+public class ConcurrentCountingTest {
+
+    private static final int NUM_THREADS = 8;
+    private static final int NUM_DOCUMENTS = 200;
+    private static final int ACTS_PER_DOCUMENT = 50;
+
+    @Test
+    public void testParallelCountingMatchesSequential() throws Exception {
+        Model seqModel = new TextModel();
+        PatternNeuron seqN = new PatternNeuron(seqModel, "A", "A", true);
+
+        for(int i = 0; i < NUM_DOCUMENTS; i++) {
+            countDocument(seqModel, seqN, i);
+        }
+
+        Model parModel = new TextModel();
+        PatternNeuron parN = new PatternNeuron(parModel, "A", "A", true);
+
+        ExecutorService executor = Executors.newFixedThreadPool(NUM_THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for(int i = 0; i < NUM_DOCUMENTS; i++) {
+            int docNr = i;
+            futures.add(executor.submit(() -> countDocument(parModel, parN, docNr)));
+        }
+        for(Future<?> f: futures) {
+            f.get();
+        }
+        executor.shutdown();
+
+        assertEquals(seqModel.getN(), parModel.getN(), 0.0);
+        assertEquals(seqN.getFrequency(), parN.getFrequency(), 0.0);
+        assertEquals(seqN.getN(), parN.getN(), 0.0);
+    }
+
+    @Test
+    public void testConcurrentScaling() throws Exception {
+        Counter c = new Counter();
+        c.set(1.0);
+
+        int scalesPerThread = 10000;
+        double alpha = 0.9999;
+        double min = Math.pow(alpha, NUM_THREADS * scalesPerThread);
+
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicBoolean belowMin = new AtomicBoolean();
+        Thread reader = new Thread(() -> {
+            while(!done.get()) {
+                if(c.get() < min * (1.0 - 1e-6)) {
+                    belowMin.set(true);
+                }
+            }
+        });
+        reader.start();
+
+        ExecutorService executor = Executors.newFixedThreadPool(NUM_THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for(int i = 0; i < NUM_THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                for(int j = 0; j < scalesPerThread; j++) {
+                    c.scale(alpha);
+                }
+            }));
+        }
+        for(Future<?> f: futures) {
+            f.get();
+        }
+        executor.shutdown();
+
+        done.set(true);
+        reader.join();
+
+        // No decay is lost and the drained sum is never visible to a reader.
+        assertEquals(min, c.get(), min * 1e-6);
+        assertFalse(belowMin.get());
+    }
+
+    private void countDocument(Model m, PatternNeuron n, int docNr) {
+        Document doc = new Document("");
+        m.addToN(ACTS_PER_DOCUMENT);
+
+        for(int i = 0; i < ACTS_PER_DOCUMENT; i++) {
+            Activation act = new Activation(doc, n);
+            act.setValue((docNr + i) % 3 == 0 ? 0.0 : 1.0);
+            act.setRangeCoverage(1 + (i % 2));
+            act.count();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network;
+
+import network.aika.neuron.excitatory.PatternNeuron;
+import network.aika.text.TextModel;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrentTokenTest {
+
+    @Test
+    public void testConcurrentTokenCreation() throws Exception {
+        TextModel m = new TextModel();
+
+        List<String> labels = new ArrayList<>();
+        for(int i = 0; i < 500; i++) {
+            labels.add("token-" + i);
+        }
+
+        int numThreads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        PatternNeuron[] first;
+        try {
+            CyclicBarrier start = new CyclicBarrier(numThreads);
+            List<Future<PatternNeuron[]>> results = new ArrayList<>();
+            for(int t = 0; t < numThreads; t++) {
+                Random r = new Random(t);
+                results.add(executor.submit(() -> {
+                    List<String> order = new ArrayList<>(labels);
+                    Collections.shuffle(order, r);
+                    start.await();
+
+                    PatternNeuron[] tokens = new PatternNeuron[labels.size()];
+                    for(String l: order) {
+                        PatternNeuron token = m.lookupToken(l);
+                        // The relation neurons of a token must be linked before the token is handed out.
+                        assertEquals(2L, token.getOutputSynapses().count(), l);
+                        tokens[labels.indexOf(l)] = token;
+                    }
+                    return tokens;
+                }));
+            }
+
+            first = results.get(0).get();
+            for(Future<PatternNeuron[]> f: results) {
+                PatternNeuron[] tokens = f.get();
+                for(int i = 0; i < tokens.length; i++) {
+                    assertSame(first[i].getProvider(), tokens[i].getProvider());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(labels.size(), m.getVocabulary().size());
+        for(int i = 0; i < labels.size(); i++) {
+            assertEquals(first[i].getId(), m.getNeuronProvider(labels.get(i)).getId());
+        }
+    }
+}
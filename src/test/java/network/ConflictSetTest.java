@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network;
+
+import network.aika.neuron.activation.Activation;
+import network.aika.neuron.activation.ConflictSet;
+import network.aika.text.Document;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ConflictSetTest {
+
+    @Test
+    public void testSoftmaxMatchesTwoPass() {
+        Random r = new Random(1);
+        for(int i = 0; i < 1000; i++) {
+            double[] nets = new double[r.nextInt(10)];
+            for(int j = 0; j < nets.length; j++) {
+                nets[j] = 20.0 * r.nextGaussian();
+            }
+            double net = 20.0 * r.nextGaussian();
+
+            double expected = twoPassSoftmax(net, nets);
+            assertEquals(expected, ConflictSet.softmax(net, nets), 1e-12);
+        }
+    }
+
+    @Test
+    public void testSoftmaxOfLargeNets() {
+        // exp(1000.0) overflows, the moving offset keeps the sum in range.
+        double[] nets = {1000.0, -1000.0, 999.0};
+        double p = ConflictSet.softmax(1000.0, nets);
+
+        assertEquals(1.0 / (2.0 + Math.exp(-1.0)), p, 1e-12);
+        assertEquals(1.0, ConflictSet.softmax(3.0, new double[0]), 0.0);
+    }
+
+    @Test
+    public void testMergeNets() {
+        CompetitionFixture f = new CompetitionFixture(3);
+        Document doc = f.process(null);
+
+        // Each competitor fires its own inhibitory activation.
+        List<ConflictSet> sets = new ArrayList<>();
+        List<Double> expected = new ArrayList<>();
+        for(Activation act: doc.getActivations()) {
+            if(act.getNeuron() == f.inhib) {
+                ConflictSet cs = ConflictSet.create(doc.getExclusionGroup(act));
+                sets.add(cs);
+                for(double net: ConflictSet.mergeNets(Collections.singletonList(cs))) {
+                    expected.add(net);
+                }
+            }
+        }
+        assertEquals(3, sets.size());
+        assertEquals(3, expected.size());
+
+        // The activations shared by several conflict sets are only counted once.
+        List<ConflictSet> withDuplicates = new ArrayList<>(sets);
+        withDuplicates.add(sets.get(0));
+        withDuplicates.add(2, sets.get(1));
+
+        double[] merged = ConflictSet.mergeNets(withDuplicates);
+        assertEquals(expected.size(), merged.length);
+        for(int i = 0; i < merged.length; i++) {
+            assertEquals(expected.get(i), merged[i], 0.0);
+        }
+    }
+
+    /**
+     * The normalization that computeP used before the single pass: first the offset, the smallest net of the
+     * competitors, then the exponent sum.
+     */
+    private static double twoPassSoftmax(double net, double[] nets) {
+        double offset = Arrays.stream(nets).min().orElse(net);
+
+        double norm = Math.exp(net - offset);
+        for(double x: nets) {
+            norm += Math.exp(x - offset);
+        }
+        return Math.exp(net - offset) / norm;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network;
+
+import network.aika.Config;
+import network.aika.neuron.activation.Activation;
+import network.aika.neuron.excitatory.PatternNeuron;
+import network.aika.text.Document;
+import network.aika.text.TextModel;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConvergenceTest {
+
+    @Test
+    public void testConvergenceStatistics() {
+        Document doc = new CompetitionFixture(3).process(null);
+        assertTrue(doc.getConvergence().isConverged());
+        assertTrue(doc.getConvergence().getReprocessed() > 0);
+        assertEquals(0, doc.getRoundLimitHits());
+    }
+
+    @Test
+    public void testRoundBudget() {
+        Document doc = new CompetitionFixture(3).process(new Config().setRoundBudget(2));
+        assertFalse(doc.getConvergence().isConverged());
+        assertEquals(2L, doc.getConvergence().getRounds());
+    }
+
+    @Test
+    public void testDefaultRoundLimit() {
+        TextModel m = new TextModel();
+        PatternNeuron in = new PatternNeuron(m, "A", "IN-A", true);
+
+        // A document without a training config still stops an activation whose value keeps oscillating.
+        Document doc = new Document("a", null);
+        Activation act = new Activation(doc, in);
+        act.setValue(1.0);
+        act.propagateInput();
+
+        for(int i = 0; i < 2 * Config.DEFAULT_MAX_ROUNDS; i++) {
+            Activation nextRound = act.getModifiable();
+            if(nextRound == act) {
+                break;
+            }
+            nextRound.setValue(i % 2);
+            nextRound.process();
+            act = nextRound;
+        }
+
+        assertEquals(Config.DEFAULT_MAX_ROUNDS, act.getRound());
+        assertFalse(doc.getConvergence().isConverged());
+        assertEquals(1L, doc.getRoundLimitHits());
+    }
+
+    @Test
+    public void testDefaultTolerance() {
+        Document doc = new CompetitionFixture(3).process(null);
+        assertEquals(
+                Activation.TOLERANCE * Math.pow(Config.DEFAULT_TOLERANCE_GROWTH, 5),
+                doc.getConvergence().getTolerance(5),
+                0.0
+        );
+    }
+}
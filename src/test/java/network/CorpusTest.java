@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network;
+
+import network.aika.text.Corpus;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CorpusTest {
+
+    @Test
+    public void testWordsAndSplit() throws IOException {
+        File dir = Files.createTempDirectory("corpus").toFile();
+        Files.write(new File(dir, "a.txt").toPath(),
+                "Es war einmal ein König, der hatte drei Töchter.\nDie jüngste war so schön, daß".getBytes(StandardCharsets.UTF_8));
+        Files.write(new File(dir, "b.txt").toPath(),
+                "die Sonne sich verwunderte, sooft sie ihr ins Gesicht schien. Größer".getBytes(StandardCharsets.UTF_8));
+
+        List<String> expected = Util.loadExamplesAsWords(dir);
+
+        Corpus corpus = new Corpus(7, dir.listFiles());
+        try (Stream<String> words = corpus.words()) {
+            assertEquals(expected, words.collect(Collectors.toList()));
+        }
+
+        List<String> splitWords = new ArrayList<>();
+        for(Corpus part: corpus.split(3)) {
+            try (Stream<String> words = part.words()) {
+                words.forEach(splitWords::add);
+            }
+        }
+        assertEquals(expected, splitWords);
+
+        for(File f: dir.listFiles()) {
+            f.delete();
+        }
+        dir.delete();
+    }
+}
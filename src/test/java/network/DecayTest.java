@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network;
+
+import network.aika.Config;
+import network.aika.InMemorySuspensionHook;
+import network.aika.neuron.Neuron;
+import network.aika.neuron.activation.Activation;
+import network.aika.neuron.excitatory.PatternPartNeuron;
+import network.aika.text.Document;
+import network.aika.text.TextModel;
+import org.junit.jupiter.api.Test;
+
+import static network.aika.neuron.NeuronProvider.SuspensionMode.SAVE;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class DecayTest {
+
+    @Test
+    public void testLazyDecay() {
+        TextModel m = new TextModel();
+        PatternPartNeuron eager = new PatternPartNeuron(m, "EAGER", false);
+        PatternPartNeuron lazy = new PatternPartNeuron(m, "LAZY", false);
+
+        Document doc = new Document("");
+        count(doc, eager);
+        count(doc, lazy);
+
+        // The alpha changes between the documents, the lazy neuron needs to catch up with both of them.
+        double expected = 1.0;
+        for(double alpha: new double[] {0.9, 0.9, 0.5}) {
+            m.applyMovingAverage(new Config().setAlpha(alpha));
+            expected *= alpha;
+            assertEquals(expected, eager.getFrequency(), 0.000001);
+        }
+
+        assertEquals(expected, lazy.getFrequency(), 0.000001);
+    }
+
+    @Test
+    public void testDecayIsStored() {
+        InMemorySuspensionHook sh = new InMemorySuspensionHook();
+        TextModel m = new TextModel(sh);
+        PatternPartNeuron n = new PatternPartNeuron(m, "N", false);
+        m.addToN(4);
+
+        Document doc = new Document("");
+        count(doc, n);
+
+        m.applyMovingAverage(new Config().setAlpha(0.5));
+        n.getFrequency();
+
+        long id = n.getId();
+        m.suspendAll(SAVE);
+        m.store();
+
+        TextModel reopened = new TextModel(sh);
+        reopened.load();
+        reopened.applyMovingAverage(new Config().setAlpha(0.5));
+
+        Neuron rn = reopened.lookupNeuron(id).getNeuron();
+        assertEquals(1.0, reopened.getN(), 0.000001);
+        assertEquals(0.25, rn.getFrequency(), 0.000001);
+    }
+
+    private void count(Document doc, PatternPartNeuron n) {
+        Activation act = new Activation(doc, n);
+        act.setValue(1.0);
+        act.count();
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network;
+
+import network.aika.text.Document;
+import network.aika.text.DocumentPipeline;
+import network.aika.text.TextModel;
+import network.aika.text.Tokenizer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DocumentPipelineTest {
+
+    private static final Tokenizer WHITESPACE_TOKENIZER = (text, consumer) -> {
+        int begin = -1;
+        for(int i = 0; i <= text.length(); i++) {
+            boolean ws = i == text.length() || Character.isWhitespace(text.charAt(i));
+            if(!ws && begin < 0) {
+                begin = i;
+            } else if(ws && begin >= 0) {
+                consumer.accept(begin, i, text.subSequence(begin, i).toString());
+                begin = -1;
+            }
+        }
+    };
+
+    @Test
+    public void testPipelineMatchesSequentialProcessing() throws InterruptedException {
+        List<String> texts = new ArrayList<>();
+        Random r = new Random(1);
+        for(int i = 0; i < 50; i++) {
+            StringBuilder sb = new StringBuilder();
+            for(int j = 0; j < 20; j++) {
+                sb.append("w").append(r.nextInt(30)).append(" ");
+            }
+            texts.add(sb.toString());
+        }
+
+        TextModel m = new TextModel();
+        List<Integer> expected = new ArrayList<>();
+        for(String txt: texts) {
+            Document doc = new Document(txt);
+            WHITESPACE_TOKENIZER.tokenize(txt, (begin, end, label) -> doc.processToken(m, begin, end, label));
+            doc.process();
+            expected.add(doc.getNumberOfActivations());
+        }
+
+        List<Integer> results = Collections.synchronizedList(new ArrayList<>());
+        DocumentPipeline<Integer> pipeline = new DocumentPipeline<>(m, WHITESPACE_TOKENIZER, Document::getNumberOfActivations, results::add, 4);
+        for(String txt: texts) {
+            pipeline.submit(txt);
+        }
+        pipeline.close();
+
+        System.out.println(pipeline);
+
+        assertEquals(expected, results);
+        assertEquals(texts.size(), pipeline.getLinkStage().getCount());
+    }
+
+    @Test
+    public void testFailureIsRethrown() throws InterruptedException {
+        DocumentPipeline<Integer> pipeline = new DocumentPipeline<>(
+                new TextModel(),
+                WHITESPACE_TOKENIZER,
+                doc -> {
+                    throw new IllegalStateException("extraction failed");
+                },
+                result -> {},
+                2
+        );
+        for(int i = 0; i < 10; i++) {
+            pipeline.submit("a b c");
+        }
+
+        assertThrows(IllegalStateException.class, pipeline::close);
+    }
+
+    @Test
+    public void testCloseWhileSubmitting() throws InterruptedException {
+        List<Integer> results = Collections.synchronizedList(new ArrayList<>());
+        DocumentPipeline<Integer> pipeline = new DocumentPipeline<>(new TextModel(), WHITESPACE_TOKENIZER, Document::getNumberOfActivations, results::add, 2);
+
+        AtomicInteger submitted = new AtomicInteger();
+        Thread producer = new Thread(() -> {
+            try {
+                while(true) {
+                    pipeline.submit("a b c");
+                    submitted.incrementAndGet();
+                }
+            } catch (IllegalStateException | InterruptedException e) {
+            }
+        });
+        producer.start();
+
+        for(int i = 0; i < 10000 && results.size() < 5; i++) {
+            Thread.sleep(1);
+        }
+        pipeline.close();
+        producer.join(10000);
+
+        assertFalse(producer.isAlive());
+        assertEquals(submitted.get(), results.size());
+    }
+
+    @Test
+    public void testInterruptedStage() throws InterruptedException {
+        Tokenizer interruptingTokenizer = (text, consumer) -> {
+            if(text.toString().equals("stop")) {
+                Thread.currentThread().interrupt();
+            }
+            WHITESPACE_TOKENIZER.tokenize(text, consumer);
+        };
+
+        DocumentPipeline<Integer> pipeline = new DocumentPipeline<>(new TextModel(), interruptingTokenizer, Document::getNumberOfActivations, result -> {}, 2);
+        pipeline.submit("a b");
+        pipeline.submit("stop");
+        for(int i = 0; i < 10; i++) {
+            pipeline.submit("c d");
+        }
+
+        AtomicReference<Throwable> closeFailure = new AtomicReference<>();
+        Thread closer = new Thread(() -> {
+            try {
+                pipeline.close();
+            } catch (Throwable e) {
+                closeFailure.set(e);
+            }
+        });
+        closer.start();
+        closer.join(10000);
+
+        assertFalse(closer.isAlive());
+        assertTrue(closeFailure.get().getCause() instanceof InterruptedException);
+    }
+
+    @Test
+    public void testInterruptedClose() throws InterruptedException {
+        List<Integer> results = Collections.synchronizedList(new ArrayList<>());
+        try (DocumentPipeline<Integer> pipeline = new DocumentPipeline<>(new TextModel(), WHITESPACE_TOKENIZER, Document::getNumberOfActivations, results::add, 2)) {
+            for(int i = 0; i < 20; i++) {
+                pipeline.submit("a b c");
+            }
+
+            // The close at the end of the block still waits for all documents.
+            Thread.currentThread().interrupt();
+        }
+
+        assertTrue(Thread.interrupted());
+        assertEquals(20, results.size());
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network;
+
+import network.aika.text.Document;
+import network.aika.text.DocumentPool;
+import network.aika.text.TextModel;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+/**
+ * Compares the allocation rate of fresh documents with the one of pooled documents for short texts. The
+ * equivalence of both is checked by {@link DocumentPoolTest}.
+ */
+public class DocumentPoolBenchmark {
+
+    private static final int DOCS = 2000;
+
+    public static void main(String[] args) {
+        TextModel m = new TextModel();
+        String[] texts = new String[DOCS];
+        Random r = new Random(1);
+        for(int i = 0; i < DOCS; i++) {
+            StringBuilder sb = new StringBuilder();
+            for(int j = 0; j < 8; j++) {
+                sb.append((char) ('a' + r.nextInt(26)));
+            }
+            texts[i] = sb.toString();
+        }
+
+        DocumentPool pool = new DocumentPool(1, null);
+        for(int warmup = 0; warmup < 2; warmup++) {
+            fresh(m, texts);
+            pooled(m, pool, texts);
+        }
+
+        long[] fresh = fresh(m, texts);
+        long[] pooled = pooled(m, pool, texts);
+
+        System.out.println("docs:" + DOCS +
+                " fresh:" + (fresh[0] / DOCS) + "B/doc " + (fresh[1] / DOCS / 1000) + "us/doc" +
+                " pooled:" + (pooled[0] / DOCS) + "B/doc " + (pooled[1] / DOCS / 1000) + "us/doc");
+    }
+
+    private static long[] fresh(TextModel m, String[] texts) {
+        long bytes = allocatedBytes();
+        long start = System.nanoTime();
+        for(String txt: texts) {
+            Document doc = new Document(txt);
+            process(m, doc);
+        }
+        return new long[] {allocatedBytes() - bytes, System.nanoTime() - start};
+    }
+
+    private static long[] pooled(TextModel m, DocumentPool pool, String[] texts) {
+        long bytes = allocatedBytes();
+        long start = System.nanoTime();
+        for(String txt: texts) {
+            Document doc = pool.acquire(txt);
+            process(m, doc);
+            pool.release(doc);
+        }
+        return new long[] {allocatedBytes() - bytes, System.nanoTime() - start};
+    }
+
+    private static void process(TextModel m, Document doc) {
+        doc.processCharacters(m, 0, doc.length(), 1);
+        doc.process();
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network;
+
+import network.aika.text.Document;
+import network.aika.text.DocumentPool;
+import network.aika.text.TextModel;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DocumentPoolTest {
+
+    private static final String[] TEXTS = {"hello world", "abcabc", "zzz", "hello world", ""};
+
+    private TextModel m = new TextModel();
+
+    @Test
+    public void testPooledDocument() {
+        DocumentPool pool = new DocumentPool(1, null);
+
+        for(String txt: TEXTS) {
+            Document doc = pool.acquire(txt);
+            assertEquals(txt, doc.getContent());
+            assertEquals(0, doc.getNumberOfActivations());
+
+            assertEquals(processFresh(txt), process(doc));
+            pool.release(doc);
+        }
+
+        assertEquals(1L, pool.getCreated());
+        assertEquals((long) TEXTS.length - 1, pool.getReused());
+    }
+
+    @Test
+    public void testResetDocument() {
+        Document doc = new Document("");
+        for(String txt: TEXTS) {
+            doc.reset(txt);
+            assertEquals(processFresh(txt), process(doc));
+        }
+    }
+
+    @Test
+    public void testPoolSize() {
+        DocumentPool pool = new DocumentPool(1, null);
+        Document a = pool.acquire("a");
+        Document b = pool.acquire("b");
+        pool.release(a);
+        pool.release(b);
+
+        // Only one document is kept, the second one is dropped.
+        assertSame(a, pool.acquire("c"));
+        assertTrue(pool.acquire("d") != b);
+        assertEquals(3L, pool.getCreated());
+        assertEquals(1L, pool.getReused());
+    }
+
+    private String processFresh(String txt) {
+        return process(new Document(txt));
+    }
+
+    private String process(Document doc) {
+        doc.processCharacters(m, 0, doc.length(), 2);
+        doc.process();
+        return doc.activationsToString();
+    }
+}
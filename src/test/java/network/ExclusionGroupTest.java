@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network;
+
+import network.aika.neuron.Neuron;
+import network.aika.neuron.activation.Activation;
+import network.aika.neuron.activation.ExclusionGroup;
+import network.aika.neuron.activation.Link;
+import network.aika.neuron.excitatory.ExcitatorySynapse;
+import network.aika.neuron.excitatory.PatternNeuron;
+import network.aika.neuron.excitatory.PatternPartNeuron;
+import network.aika.neuron.inhibitory.InhibitoryNeuron;
+import network.aika.neuron.inhibitory.InhibitorySynapse;
+import network.aika.text.Document;
+import network.aika.text.TextModel;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ExclusionGroupTest {
+
+    private static final int COMPETITORS = 3;
+
+    private PatternPartNeuron[] competitors = new PatternPartNeuron[COMPETITORS];
+    private InhibitorySynapse[] inhibSynapses = new InhibitorySynapse[COMPETITORS];
+    private InhibitoryNeuron inhib;
+
+    @Test
+    public void testOneMemberPerProvider() {
+        Document doc = process();
+
+        Activation iAct = getActivation(doc, inhib);
+        ExclusionGroup group = doc.getExclusionGroup(iAct);
+        assertEquals(1, group.size());
+        assertInvariant(doc, iAct);
+
+        // Only the first competitor propagates to the inhibitory activation, the others join its group.
+        Activation[] acts = new Activation[COMPETITORS];
+        for(int i = 0; i < COMPETITORS; i++) {
+            acts[i] = getActivation(doc, competitors[i]);
+            if(i > 0) {
+                Link.link(inhibSynapses[i], acts[i], iAct);
+                doc.processLinks();
+            }
+            assertEquals(i + 1, group.size());
+            assertInvariant(doc, iAct);
+        }
+
+        // Linking the same competitor again does not add a second member for its neuron.
+        Link.link(inhibSynapses[1], acts[1], iAct);
+        doc.processLinks();
+        assertEquals(COMPETITORS, group.size());
+
+        // A new round of a competitor replaces its predecessor in the group.
+        Activation nextRound = acts[1].getModifiable();
+        assertTrue(nextRound != acts[1]);
+        Link.link(inhibSynapses[1], nextRound, iAct);
+        doc.processLinks();
+
+        assertEquals(COMPETITORS, group.size());
+        assertTrue(contains(group, nextRound));
+        assertFalse(contains(group, acts[1]));
+        assertInvariant(doc, iAct);
+
+        group.remove(nextRound);
+        assertEquals(COMPETITORS - 1, group.size());
+        assertTrue(contains(group, acts[0]));
+        assertTrue(contains(group, acts[2]));
+    }
+
+    @Test
+    public void testCompetingNeurons() {
+        CompetitionFixture f = new CompetitionFixture(COMPETITORS);
+        Document doc = f.process(null);
+
+        // The groups are still consistent after the competitors have been revised in later rounds and branches.
+        assertTrue(doc.getCreatedBranches() > 0);
+        doc.getActivations()
+                .stream()
+                .filter(act -> act.getNeuron() == f.inhib)
+                .forEach(iAct -> assertInvariant(doc, iAct));
+    }
+
+    private Document process() {
+        TextModel m = new TextModel();
+        PatternNeuron in = new PatternNeuron(m, "I", "IN", true);
+        inhib = new InhibitoryNeuron(m, "I", false);
+
+        for(int i = 0; i < COMPETITORS; i++) {
+            competitors[i] = new PatternPartNeuron(m, "C" + i, false);
+
+            ExcitatorySynapse s = new ExcitatorySynapse(in, competitors[i]);
+            s.setPropagate(true);
+            s.link();
+            s.update(10.0, false);
+
+            inhibSynapses[i] = new InhibitorySynapse(competitors[i], inhib);
+            inhibSynapses[i].setPropagate(i == 0);
+            inhibSynapses[i].link();
+            inhibSynapses[i].update(1.0, false);
+
+            competitors[i].setBias(1.0 + 0.1 * i);
+        }
+        inhib.setBias(0.0);
+
+        Document doc = new Document("test");
+        Activation act = new Activation(doc, in);
+        act.setValue(1.0);
+        act.propagateInput();
+        doc.process();
+        return doc;
+    }
+
+    private static Activation getActivation(Document doc, Neuron n) {
+        return doc.getActivations()
+                .stream()
+                .filter(act -> act.getNeuron() == n)
+                .findAny()
+                .get();
+    }
+
+    private static boolean contains(ExclusionGroup group, Activation act) {
+        for(int i = 0; i < group.size(); i++) {
+            if(group.get(i) == act) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Each neuron has at most one member in the group, and the members are the current rounds of their
+     * activations.
+     */
+    private static void assertInvariant(Document doc, Activation iAct) {
+        ExclusionGroup group = doc.getExclusionGroup(iAct);
+        assertEquals(iAct.getId(), group.getInhibActId());
+        assertTrue(group.size() > 0);
+
+        Set<Long> neurons = new HashSet<>();
+        for(int i = 0; i < group.size(); i++) {
+            Activation act = group.get(i);
+            assertTrue(neurons.add(act.getNeuronProvider().getId()));
+            assertSame(act.getCurrentRound(), act);
+        }
+    }
+}
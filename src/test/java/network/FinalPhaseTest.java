@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network;
+
+import network.aika.ActivationIdSet;
+import network.aika.neuron.activation.Activation;
+import network.aika.text.Document;
+import network.aika.text.TextModel;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FinalPhaseTest {
+
+    @Test
+    public void testIdSet() {
+        Random r = new Random(1);
+        ActivationIdSet ids = new ActivationIdSet();
+        TreeSet<Integer> expected = new TreeSet<>();
+
+        for(int i = 0; i < 20000; i++) {
+            // The ids drift upwards, like the ids of a streamed document, but older ids still occur.
+            int id = Math.max(0, i / 10 + r.nextInt(300) - 200);
+            switch(r.nextInt(10)) {
+                case 0:
+                    assertEquals(expected.remove(id), ids.remove(id));
+                    break;
+                case 1:
+                    if(r.nextInt(100) == 0) {
+                        expected.clear();
+                        ids.clear();
+                    }
+                    break;
+                default:
+                    assertEquals(expected.add(id), ids.add(id));
+            }
+            assertEquals(expected.contains(id), ids.contains(id));
+            assertEquals(expected.size(), ids.size());
+        }
+
+        List<Integer> iterated = new ArrayList<>();
+        ids.forEach(iterated::add);
+        assertEquals(new ArrayList<>(expected), iterated);
+    }
+
+    @Test
+    public void testFinalPhaseUpdates() {
+        TextModel m = new TextModel();
+        RecordingDocument doc = new RecordingDocument("the quick brown fox");
+
+        int i = 0;
+        for(String t: doc.getContent().split(" ")) {
+            doc.processToken(m, i, i + t.length(), t);
+            i += t.length() + 1;
+            doc.process();
+
+            assertTrue(doc.getFinalPhaseUpdates() > 0);
+            assertTrue(doc.getSkippedFinalPhaseUpdates() > 0);
+        }
+
+        // Without new input there is nothing left to update.
+        doc.process();
+        assertEquals(0L, doc.getFinalPhaseUpdates());
+        assertEquals((long) doc.getNumberOfActivations(), doc.getSkippedFinalPhaseUpdates());
+    }
+
+    @Test
+    public void testFinalPhaseUpdatesOfCompetingNeurons() {
+        CompetitionFixture f = new CompetitionFixture(3);
+        RecordingDocument doc = new RecordingDocument("test");
+        f.processInput(doc);
+
+        // The competitors receive their negative input late, the input activation does not.
+        assertTrue(doc.getFinalPhaseUpdates() > 0);
+        assertTrue(doc.getSkippedFinalPhaseUpdates() > 0);
+    }
+
+    /**
+     * Computes, before each call of {@code process}, which activations should be updated for the final phase:
+     * those that have been marked dirty since the last call and have late input or a phase dependent bias.
+     */
+    private static class RecordingDocument extends Document {
+
+        private final Set<Integer> dirty = new HashSet<>();
+        private final Set<Integer> late = new HashSet<>();
+
+        RecordingDocument(String content) {
+            super(content);
+        }
+
+        @Override
+        public void markDirty(Activation act) {
+            super.markDirty(act);
+            dirty.add(act.getId());
+        }
+
+        @Override
+        public void markLate(Activation act) {
+            super.markLate(act);
+            late.add(act.getId());
+        }
+
+        @Override
+        public void process() {
+            int expectedUpdates = 0;
+            for(Activation act: getActivations()) {
+                if(dirty.contains(act.getId()) && (late.contains(act.getId()) || act.hasPhaseDependentBias())) {
+                    expectedUpdates++;
+                }
+            }
+            int numActs = getNumberOfActivations();
+
+            super.process();
+            dirty.clear();
+            late.clear();
+
+            assertEquals((long) expectedUpdates, getFinalPhaseUpdates());
+            assertEquals((long) numActs - expectedUpdates, getSkippedFinalPhaseUpdates());
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network;
+
+import network.aika.neuron.activation.Activation;
+import network.aika.text.Document;
+import network.aika.text.TextModel;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import static network.aika.neuron.activation.Activation.TOLERANCE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+
+public class IncrementalProcessTest {
+
+    @Test
+    public void testProcessAfterEachToken() {
+        Map<Integer, Double> once = process("the quick brown", false);
+        Map<Integer, Double> incremental = process("the quick brown", true);
+
+        assertEquals(once.keySet(), incremental.keySet());
+        for(Map.Entry<Integer, Double> me: once.entrySet()) {
+            assertEquals(me.getValue(), incremental.get(me.getKey()), TOLERANCE, "Act id:" + me.getKey());
+        }
+    }
+
+    private Map<Integer, Double> process(String txt, boolean processEachToken) {
+        TextModel m = new TextModel();
+        Document doc = new Document(txt);
+
+        int i = 0;
+        for(String t: txt.split(" ")) {
+            assertNotNull(doc.processToken(m, i, i + t.length(), t));
+            i += t.length() + 1;
+
+            if(processEachToken) {
+                doc.process();
+            }
+        }
+        if(!processEachToken) {
+            doc.process();
+        }
+
+        Map<Integer, Double> values = new TreeMap<>();
+        for(Activation act: doc.getActivations()) {
+            values.put(act.getId(), act.getValue());
+        }
+        return values;
+    }
+}
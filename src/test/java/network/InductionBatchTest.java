@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network;
+
+import network.aika.Config;
+import network.aika.InductionBatch;
+import network.aika.Model;
+import network.aika.neuron.Neuron;
+import network.aika.neuron.activation.Activation;
+import network.aika.neuron.excitatory.PatternNeuron;
+import network.aika.neuron.excitatory.PatternPartNeuron;
+import network.aika.text.Document;
+import network.aika.text.TextModel;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static network.aika.neuron.activation.Direction.INPUT;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class InductionBatchTest {
+
+    private Model m;
+    private List<Neuron> induced;
+
+    private void initModel() {
+        m = new TextModel();
+        induced = new ArrayList<>();
+    }
+
+    private Supplier<Neuron> factory(String label) {
+        return () -> {
+            Neuron n = new PatternPartNeuron(m, label, false);
+            induced.add(n);
+            return n;
+        };
+    }
+
+    private Activation activate(Document doc, Neuron n) {
+        Activation act = new Activation(doc, n);
+        act.setValue(1.0);
+        return act;
+    }
+
+    @Test
+    public void testCandidatesAreMerged() {
+        initModel();
+        PatternNeuron in = new PatternNeuron(m, "IN", "IN", true);
+        PatternPartNeuron out = new PatternPartNeuron(m, "OUT", false);
+
+        Document doc = new Document("", new Config());
+        Activation iAct1 = activate(doc, in);
+        Activation iAct2 = activate(doc, in);
+        Activation oAct = activate(doc, out);
+
+        InductionBatch batch = doc.getInductionBatch();
+        batch.addNeuron(iAct1, PatternPartNeuron.class, factory("PP-1"));
+        batch.addNeuron(iAct2, PatternPartNeuron.class, factory("PP-2"));
+        batch.addSynapse(iAct1, oAct);
+        batch.addSynapse(iAct2, oAct);
+        batch.commit();
+
+        assertEquals(1, induced.size());
+        assertEquals(1, batch.getInducedNeurons());
+        assertEquals(1, batch.getInducedSynapses());
+        assertEquals(0, batch.getDroppedCandidates());
+        assertEquals(2L, doc.getActivations().stream().filter(act -> act.getNeuron() == induced.get(0)).count());
+        assertTrue(batch.isEmpty());
+    }
+
+    @Test
+    public void testInductionLimits() {
+        initModel();
+        PatternNeuron inA = new PatternNeuron(m, "A", "A", true);
+        PatternNeuron inB = new PatternNeuron(m, "B", "B", true);
+        PatternPartNeuron out = new PatternPartNeuron(m, "OUT", false);
+
+        Document doc = new Document("", new Config()
+                .setMaxInducedNeurons(1)
+                .setMaxInducedSynapses(1)
+        );
+        Activation iActA = activate(doc, inA);
+        Activation iActB = activate(doc, inB);
+        Activation oAct = activate(doc, out);
+
+        InductionBatch batch = doc.getInductionBatch();
+        batch.addNeuron(iActA, PatternPartNeuron.class, factory("PP-A"));
+        batch.addNeuron(iActB, PatternPartNeuron.class, factory("PP-B"));
+        batch.addSynapse(iActA, oAct);
+        batch.addSynapse(iActB, oAct);
+        batch.commit();
+
+        assertEquals(1, induced.size());
+        assertEquals(1, batch.getInducedNeurons());
+        assertEquals(1, batch.getInducedSynapses());
+        assertEquals(2, batch.getDroppedCandidates());
+        assertEquals(1, out.getInputSynapses().size());
+    }
+
+    /**
+     * Training commits the batch and processes the links of the induced activations right away, so that
+     * they are part of the thought before the gradients are computed.
+     */
+    @Test
+    public void testInducedLinksAreProcessed() {
+        initModel();
+        PatternNeuron in = new PatternNeuron(m, "IN", "IN", true);
+
+        Document doc = new Document("", new Config());
+        Activation iAct = activate(doc, in);
+        iAct.propagateInput();
+
+        doc.process();
+        doc.train(m);
+
+        assertTrue(doc.getInductionBatch().getInducedNeurons() > 0);
+        for(Activation act: doc.getActivations()) {
+            if(act.getNeuron() == in) continue;
+
+            assertEquals(1L, act.getLinks(INPUT).count());
+            assertSame(iAct, act.getLinks(INPUT).findAny().get().getInput());
+        }
+    }
+}
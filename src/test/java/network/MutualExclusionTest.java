@@ -27,7 +27,7 @@ import network.aika.neuron.excitatory.PatternPartNeuron;
 import network.aika.text.TextModel;
 import org.junit.jupiter.api.Test;
 
-import java.util.Set;
+import java.util.Collection;
 
 
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -140,7 +140,7 @@ public class MutualExclusionTest {
 
         System.out.println(doc.activationsToString());
 
-        Set<Activation> nbActs = doc.getActivations(nb);
+        Collection<Activation> nbActs = doc.getActivations(nb);
         Activation nbAct = nbActs.iterator().next();
 
         assertTrue(nbAct.getValue() > 0.38);
@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network;
+
+import network.aika.InMemorySuspensionHook;
+import network.aika.neuron.activation.Activation;
+import network.aika.neuron.excitatory.PatternNeuron;
+import network.aika.text.Document;
+import network.aika.text.TextModel;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static network.aika.neuron.NeuronProvider.SuspensionMode.SAVE;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class NGramTest {
+
+    @Test
+    public void testSurrogatePairs() {
+        TextModel m = new TextModel();
+        String txt = "a😀b";
+
+        Document doc = new Document(txt);
+        doc.processCharacters(m, 0, doc.length(), 2);
+
+        List<String> nGrams = new ArrayList<>();
+        for(Activation act: doc.getActivations()) {
+            if(!(act.getNeuron() instanceof PatternNeuron)) continue;
+
+            String label = ((PatternNeuron) act.getNeuron()).getTokenLabel();
+            if(label != null && label.startsWith("NGram ")) {
+                nGrams.add(label);
+            }
+        }
+
+        assertEquals(List.of("NGram a😀", "NGram 😀b"), nGrams);
+        assertSame(m.lookupNGram("x😀b", 1, 4), m.lookupNGram(txt, 1, 4));
+    }
+
+    @Test
+    public void testNGramLength() {
+        TextModel m = new TextModel();
+
+        assertNotNull(m.lookupNGram("😀😀😀", 0, 6));
+        assertThrows(IllegalArgumentException.class, () -> m.lookupNGram("abcd", 0, 4));
+    }
+
+    @Test
+    public void testReopenedModel() {
+        InMemorySuspensionHook sh = new InMemorySuspensionHook();
+        TextModel m = new TextModel(sh);
+        Long id = m.lookupNGram("ab", 0, 2).getId();
+        m.suspendAll(SAVE);
+
+        TextModel reopened = new TextModel(sh);
+        assertEquals(id, reopened.lookupNGram("ab", 0, 2).getId());
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network;
+
+import network.aika.SuspensionHook;
+import network.aika.neuron.Neuron;
+import network.aika.neuron.NeuronProvider;
+import network.aika.neuron.excitatory.PatternNeuron;
+import network.aika.text.TextModel;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class NeuronFormatTest {
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        TextModel m = new TextModel();
+        PatternNeuron n = new PatternNeuron(m, "A", "IN-A", true);
+        n.setBias(2.0);
+        n.setBlocked(true);
+
+        PatternNeuron copy = (PatternNeuron) read(m, write(n));
+        assertEquals("IN-A", copy.getDescriptionLabel());
+        assertEquals("A", copy.getTokenLabel());
+        assertEquals(2.0, copy.getBias(null), 0.0);
+        assertTrue(copy.isInputNeuron());
+        assertTrue(copy.isBlocked());
+    }
+
+    @Test
+    public void testReadVersion1() throws Exception {
+        TextModel m = new TextModel();
+
+        // The format before the version byte was introduced.
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(baos)) {
+            out.writeByte(PatternNeuron.type);
+            out.writeBoolean(true);
+            out.writeUTF("IN-A");
+            out.writeDouble(2.0);
+            out.writeBoolean(false);
+            out.writeDouble(3.0);
+            out.writeDouble(0.0);
+            out.writeDouble(0.0);
+
+            out.writeDouble(0.0);
+            out.writeDouble(0.0);
+            out.writeBoolean(false);
+
+            out.writeBoolean(true);
+            out.writeUTF("A");
+        }
+
+        PatternNeuron n = (PatternNeuron) read(m, baos.toByteArray());
+        assertEquals("IN-A", n.getDescriptionLabel());
+        assertEquals("A", n.getTokenLabel());
+        assertEquals(2.0, n.getBias(null), 0.0);
+        assertEquals(3.0, n.getFrequency(), 0.0);
+        assertFalse(n.isInputNeuron());
+        assertFalse(n.isBlocked());
+    }
+
+    @Test
+    public void testUnknownVersion() throws Exception {
+        TextModel m = new TextModel();
+        byte[] data = write(new PatternNeuron(m, "A", "IN-A", true));
+        data[1] = Neuron.FORMAT_VERSION + 1;
+
+        try {
+            read(m, data);
+            assertTrue(false);
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("version"));
+        }
+    }
+
+    @Test
+    public void testMinimalSuspensionHook() {
+        SuspensionHook sh = new SuspensionHook() {
+            @Override
+            public long createId() {
+                return 0;
+            }
+
+            @Override
+            public void store(Long id, byte[] data) {
+            }
+
+            @Override
+            public byte[] retrieve(long id) {
+                return null;
+            }
+
+            @Override
+            public Stream<Long> getAllIds() {
+                return Stream.empty();
+            }
+
+            @Override
+            public void putLabel(String label, Long id) {
+            }
+
+            @Override
+            public Long getIdByLabel(String tokenLabel) {
+                return null;
+            }
+
+            @Override
+            public void storeAllLabels() {
+            }
+        };
+
+        // A hook that does not store the model state simply has nothing to restore.
+        TextModel m = new TextModel(sh);
+        m.store();
+        m.load();
+        assertNull(sh.retrieveModel());
+
+        try {
+            sh.remove(1L);
+            assertTrue(false);
+        } catch (UnsupportedOperationException e) {
+        }
+    }
+
+    private static byte[] write(Neuron n) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(baos)) {
+            n.write(out);
+        }
+        return baos.toByteArray();
+    }
+
+    private static Neuron read(TextModel m, byte[] data) throws Exception {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            return m.readNeuron(in, new NeuronProvider(m, 1000L));
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network;
+
+import network.aika.neuron.activation.Activation;
+import network.aika.neuron.excitatory.PatternNeuron;
+import network.aika.text.Document;
+import network.aika.text.TextModel;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RangeIndexTest {
+
+    private static final int LENGTH = 12;
+
+    private TextModel m = new TextModel();
+    private PatternNeuron nA = new PatternNeuron(m, "A", "A", true);
+    private PatternNeuron nB = new PatternNeuron(m, "B", "B", true);
+
+    @Test
+    public void testOverlappingRanges() {
+        Document doc = new Document("abcdefghijkl");
+        doc.addInput(nA, 0, 5);
+        doc.addInput(nB, 3, 8);
+        doc.addInput(nA, 7, 9);
+
+        assertEquals(Arrays.asList(0, 3), getBegins(doc.getActivations(4, 5)));
+        assertEquals(Arrays.asList(3, 7), getBegins(doc.getActivations(7, 8)));
+        assertEquals(Arrays.asList(7), getBegins(doc.getActivations(nA, 5, 12)));
+        assertEquals(Collections.emptyList(), getBegins(doc.getActivations(9, 12)));
+        assertMatchesRescan(doc);
+    }
+
+    @Test
+    public void testNestedRanges() {
+        Document doc = new Document("abcdefghijkl");
+        doc.addInput(nA, 0, 10);
+        doc.addInput(nB, 2, 4);
+        doc.addInput(nB, 4, 6);
+
+        // The long range in front of the query is found, although its begin is far from the query.
+        assertEquals(Arrays.asList(0, 4), getBegins(doc.getActivations(5, 6)));
+        assertEquals(Arrays.asList(0), getBegins(doc.getActivations(8, 9)));
+        assertEquals(Arrays.asList(2, 4), getBegins(doc.getActivations(nB, 0, 12)));
+        assertMatchesRescan(doc);
+    }
+
+    @Test
+    public void testRemovedRanges() {
+        Document doc = new Document("abcdefghijkl");
+        Activation longAct = doc.addInput(nA, 0, 12);
+        Activation shortAct = doc.addInput(nB, 2, 4);
+        doc.addInput(nB, 6, 7);
+        doc.addInput(nA, 8, 10);
+
+        doc.retire(shortAct);
+        assertEquals(Arrays.asList(0), getBegins(doc.getActivations(3, 4)));
+        assertMatchesRescan(doc);
+
+        // Once the long range is gone, the shorter ranges alone bound the query.
+        doc.retire(longAct);
+        assertEquals(Collections.emptyList(), getBegins(doc.getActivations(3, 4)));
+        assertEquals(Arrays.asList(6, 8), getBegins(doc.getActivations(5, 12)));
+        assertMatchesRescan(doc);
+    }
+
+    @Test
+    public void testRandomRanges() {
+        Random r = new Random(1);
+        Document doc = new Document("abcdefghijkl");
+        List<Activation> acts = new ArrayList<>();
+        for(int i = 0; i < 50; i++) {
+            int begin = r.nextInt(LENGTH);
+            int end = begin + 1 + r.nextInt(LENGTH - begin);
+            acts.add(doc.addInput(r.nextBoolean() ? nA : nB, begin, end));
+        }
+        assertMatchesRescan(doc);
+
+        Collections.shuffle(acts, r);
+        for(Activation act: acts) {
+            doc.retire(act);
+            assertMatchesRescan(doc);
+        }
+    }
+
+    private static List<Integer> getBegins(List<Activation> acts) {
+        return acts.stream()
+                .map(act -> Document.getRange(act)[0])
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Compares all queries within the text with a scan over all activations.
+     */
+    private static void assertMatchesRescan(Document doc) {
+        for(int begin = 0; begin < LENGTH; begin++) {
+            for(int end = begin + 1; end <= LENGTH; end++) {
+                Set<Activation> expected = Collections.newSetFromMap(new IdentityHashMap<>());
+                for(Activation act: doc.getActivations()) {
+                    int[] range = Document.getRange(act);
+                    if(range[0] < end && range[1] > begin) {
+                        expected.add(act);
+                    }
+                }
+
+                // The results are ordered by the begin of their range.
+                List<Activation> results = doc.getActivations(begin, end);
+                assertEquals(expected.size(), results.size());
+                for(int i = 0; i < results.size(); i++) {
+                    assertTrue(expected.contains(results.get(i)));
+                    assertTrue(i == 0 || Document.getRange(results.get(i - 1))[0] <= Document.getRange(results.get(i))[0]);
+                }
+            }
+        }
+    }
+}
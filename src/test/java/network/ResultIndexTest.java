@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network;
+
+import network.aika.neuron.NeuronProvider;
+import network.aika.neuron.activation.Activation;
+import network.aika.text.Document;
+import network.aika.text.TextModel;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ResultIndexTest {
+
+    private Set<NeuronProvider> neurons = new HashSet<>();
+
+    @Test
+    public void testIncrementalProcessing() {
+        TextModel m = new TextModel();
+        Document doc = createDocument("the quick brown fox");
+
+        int i = 0;
+        for(String t: doc.getContent().split(" ")) {
+            doc.processToken(m, i, i + t.length(), t);
+            i += t.length() + 1;
+            assertIndexMatchesRescan(doc);
+
+            doc.process();
+            assertIndexMatchesRescan(doc);
+        }
+
+        // The activations of the earlier tokens have been revised in later rounds.
+        assertTrue(doc.getSupersededRounds() > 0);
+    }
+
+    @Test
+    public void testRetiredActivations() {
+        TextModel m = new TextModel();
+        Document doc = createDocument("");
+        doc.setStreaming(5, null);
+
+        Random r = new Random(1);
+        for(int i = 0; i < 200; i++) {
+            String c = "" + (char) ('a' + r.nextInt(5));
+            doc.append(c);
+            doc.processToken(m, i, i + 1, c);
+            assertIndexMatchesRescan(doc);
+        }
+    }
+
+    @Test
+    public void testRetireActiveActivation() {
+        TextModel m = new TextModel();
+        Document doc = createDocument("ab");
+        Activation a = doc.processToken(m, 0, 1, "a");
+        doc.processToken(m, 1, 2, "b");
+        doc.process();
+
+        assertTrue(doc.getActivations(a.getNeuron()).contains(a));
+
+        doc.retire(a);
+        assertFalse(doc.getActivations(a.getNeuron()).contains(a));
+        assertIndexMatchesRescan(doc);
+    }
+
+    private Document createDocument(String txt) {
+        neurons.clear();
+        return new Document(txt) {
+            @Override
+            public void addActivation(Activation act) {
+                super.addActivation(act);
+                neurons.add(act.getNeuronProvider());
+            }
+        };
+    }
+
+    /**
+     * The index holds the most recent final round of each active activation.
+     */
+    private void assertIndexMatchesRescan(Document doc) {
+        Map<NeuronProvider, Set<Integer>> expected = new HashMap<>();
+        for(Activation act: doc.getActivations()) {
+            Activation finalAct = act.isFinal() ? act : act.getLastRound();
+            if(finalAct != null && finalAct.isActive()) {
+                expected.computeIfAbsent(act.getNeuronProvider(), n -> new TreeSet<>()).add(act.getId());
+            }
+        }
+
+        assertFalse(neurons.isEmpty());
+        for(NeuronProvider n: neurons) {
+            Set<Integer> indexed = new TreeSet<>();
+            for(Activation act: doc.getActivations(n)) {
+                assertTrue(act.isFinal() && act.isActive());
+                assertTrue(indexed.add(act.getId()));
+            }
+            assertEquals(expected.getOrDefault(n, Collections.emptySet()), indexed);
+        }
+    }
+}
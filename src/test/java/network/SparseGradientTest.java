@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network;
+
+import network.aika.Config;
+import network.aika.Model;
+import network.aika.neuron.activation.Activation;
+import network.aika.neuron.activation.Link;
+import network.aika.neuron.excitatory.ExcitatorySynapse;
+import network.aika.neuron.excitatory.PatternNeuron;
+import network.aika.neuron.excitatory.PatternPartNeuron;
+import network.aika.text.Document;
+import network.aika.text.TextModel;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SparseGradientTest {
+
+    // The inputs all have the value 1.0, so the links are ranked by their weights.
+    private static final double[] WEIGHTS = {4.0, 2.0, 6.0, 3.0, 5.0};
+
+    private ExcitatorySynapse[] synapses;
+
+    @Test
+    public void testTopK() {
+        Document doc = backpropagate(new Config().setLearnRate(0.1).setGradientTopK(2));
+
+        assertUpdated(false, false, true, false, true);
+        assertEquals(2L, doc.getAppliedGradientUpdates());
+        assertEquals(3L, doc.getPrunedGradientUpdates());
+    }
+
+    @Test
+    public void testThreshold() {
+        // Only the weights 5.0 and 6.0 are within 80% of the largest contribution.
+        Document doc = backpropagate(new Config().setLearnRate(0.1).setGradientTopK(5).setGradientThreshold(0.8));
+
+        assertUpdated(false, false, true, false, true);
+        assertEquals(2L, doc.getAppliedGradientUpdates());
+        assertEquals(3L, doc.getPrunedGradientUpdates());
+    }
+
+    @Test
+    public void testThresholdBelowTopK() {
+        Document doc = backpropagate(new Config().setLearnRate(0.1).setGradientTopK(3).setGradientThreshold(0.9));
+
+        assertUpdated(false, false, true, false, false);
+        assertEquals(1L, doc.getAppliedGradientUpdates());
+        assertEquals(4L, doc.getPrunedGradientUpdates());
+    }
+
+    @Test
+    public void testDenseEquivalence() {
+        // k = 0 selects the dense backpropagation.
+        Document dense = backpropagate(new Config().setLearnRate(0.1).setGradientTopK(0));
+        double[] denseWeights = getWeights();
+
+        assertUpdated(true, true, true, true, true);
+        assertEquals(5L, dense.getAppliedGradientUpdates());
+        assertEquals(0L, dense.getPrunedGradientUpdates());
+
+        // A k that covers all links updates exactly the same weights as the dense backpropagation.
+        Document sparse = backpropagate(new Config().setLearnRate(0.1).setGradientTopK(WEIGHTS.length));
+        double[] sparseWeights = getWeights();
+
+        assertEquals(5L, sparse.getAppliedGradientUpdates());
+        assertEquals(0L, sparse.getPrunedGradientUpdates());
+        for(int i = 0; i < WEIGHTS.length; i++) {
+            assertEquals(denseWeights[i], sparseWeights[i], 0.0);
+        }
+    }
+
+    private Document backpropagate(Config c) {
+        Model m = new TextModel();
+        PatternPartNeuron out = new PatternPartNeuron(m, "OUT", false);
+        out.setBias(-19.5);
+
+        PatternNeuron[] inputs = new PatternNeuron[WEIGHTS.length];
+        synapses = new ExcitatorySynapse[WEIGHTS.length];
+        for(int i = 0; i < WEIGHTS.length; i++) {
+            inputs[i] = new PatternNeuron(m, "IN" + i, "IN" + i, true);
+            synapses[i] = new ExcitatorySynapse(inputs[i], out);
+            synapses[i].setPropagate(i == 0);
+            synapses[i].link();
+            synapses[i].setWeight(WEIGHTS[i]);
+        }
+
+        Document doc = new Document("test", c);
+        Activation[] inActs = new Activation[WEIGHTS.length];
+        for(int i = 0; i < WEIGHTS.length; i++) {
+            inActs[i] = new Activation(doc, inputs[i]);
+            inActs[i].setValue(1.0);
+            inActs[i].propagateInput();
+        }
+
+        // Only the first synapse propagates, the other inputs are linked to the same output activation.
+        Activation outAct = doc.getActivations()
+                .stream()
+                .filter(act -> act.getNeuron() == out)
+                .findAny()
+                .get();
+        for(int i = 1; i < WEIGHTS.length; i++) {
+            Link.link(synapses[i], inActs[i], outAct);
+        }
+        doc.processLinks();
+
+        outAct.getMutableGradient().gradient += 1.0;
+        doc.processGradients();
+        return doc;
+    }
+
+    private double[] getWeights() {
+        double[] weights = new double[synapses.length];
+        for(int i = 0; i < synapses.length; i++) {
+            weights[i] = synapses[i].getWeight();
+        }
+        return weights;
+    }
+
+    private void assertUpdated(boolean... updated) {
+        for(int i = 0; i < WEIGHTS.length; i++) {
+            if(updated[i]) {
+                assertTrue(synapses[i].getWeight() != WEIGHTS[i]);
+            } else {
+                assertEquals(WEIGHTS[i], synapses[i].getWeight(), 0.0);
+            }
+        }
+    }
+}
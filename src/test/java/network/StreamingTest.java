@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network;
+
+import network.aika.neuron.activation.Activation;
+import network.aika.neuron.activation.Direction;
+import network.aika.text.Document;
+import network.aika.text.TextModel;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StreamingTest {
+
+    private static final int LENGTH = 5000;
+    private static final int WINDOW_SIZE = 20;
+
+    // Each character yields a pattern, two pattern part and two inhibitory activations.
+    private static final int ACTS_PER_TOKEN = 5;
+
+    @Test
+    public void testStreaming() {
+        TextModel m = new TextModel();
+        Set<Integer> createdIds = new HashSet<>();
+        Document doc = new Document("") {
+            @Override
+            public void addActivation(Activation act) {
+                super.addActivation(act);
+                createdIds.add(act.getId());
+            }
+        };
+
+        Map<Integer, Activation> retiredActs = new HashMap<>();
+        doc.setStreaming(WINDOW_SIZE, act -> {
+            assertTrue(doc.getActivations().contains(act));
+            assertTrue(act.isFinal() || !act.isActive());
+            assertEquals(null, retiredActs.put(act.getId(), act));
+        });
+
+        Random r = new Random(1);
+        for(int i = 0; i < LENGTH; i++) {
+            String c = "" + (char) ('a' + r.nextInt(5));
+            doc.append(c);
+            doc.processToken(m, i, i + 1, c);
+
+            assertTrue(doc.getNumberOfActivations() <= ACTS_PER_TOKEN * (WINDOW_SIZE + 1));
+            assertTrue(doc.getContent().length() <= WINDOW_SIZE + 1);
+
+            // process is never called, so only retiring an activation removes its id.
+            assertTrue(doc.getNumberOfDirtyActivations() <= doc.getNumberOfActivations());
+            assertTrue(doc.getNumberOfLateActivations() <= doc.getNumberOfActivations());
+        }
+
+        // Every activation is either still within the window or has been passed to the callback.
+        assertEquals(createdIds.size(), retiredActs.size() + doc.getNumberOfActivations());
+        assertEquals(LENGTH, doc.length());
+
+        // The retired activations are detached from the network and no longer reachable through the indexes
+        // of the document.
+        for(Activation act: retiredActs.values()) {
+            assertEquals(0L, act.getLinks(Direction.INPUT).count());
+            assertEquals(0L, act.getLinks(Direction.OUTPUT).count());
+        }
+
+        List<Activation> indexedActs = new ArrayList<>(doc.getActivations(0, doc.length()));
+        for(char c = 'a'; c < 'f'; c++) {
+            indexedActs.addAll(doc.getActivations(m.lookupToken("" + c)));
+        }
+        assertFalse(indexedActs.isEmpty());
+        for(Activation act: indexedActs) {
+            assertFalse(retiredActs.containsKey(act.getId()));
+        }
+    }
+}
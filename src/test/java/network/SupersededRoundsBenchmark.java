@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network;
+
+import network.aika.Thought;
+import network.aika.neuron.activation.Activation;
+import network.aika.neuron.activation.Reference;
+import network.aika.text.Document;
+
+import java.lang.ref.WeakReference;
+import java.util.*;
+
+/**
+ * Processes documents with a network of competing neurons, so that most activations go through several
+ * rounds, and counts how many rounds of each activation are still reachable afterwards. That the document no
+ * longer refers to the superseded rounds is checked by {@link SupersededRoundsTest}.
+ */
+public class SupersededRoundsBenchmark {
+
+    private static final int DOCS = 200;
+    private static final int COMPETITORS = 5;
+
+    public static void main(String[] args) {
+        CompetitionFixture f = new CompetitionFixture(COMPETITORS);
+
+        List<Document> docs = new ArrayList<>();
+        List<WeakReference<Activation>> rounds = new ArrayList<>();
+        for(int i = 0; i < DOCS; i++) {
+            Document doc = new Document("test") {
+                @Override
+                public void onReferenceChanged(Activation act, Reference oldRef) {
+                    super.onReferenceChanged(act, oldRef);
+                    rounds.add(new WeakReference<>(act));
+                }
+            };
+
+            f.processInput(doc);
+
+            doc.getActivations().forEach(a -> rounds.add(new WeakReference<>(a)));
+            docs.add(doc);
+        }
+
+        for(int i = 0; i < 3; i++) {
+            System.gc();
+        }
+
+        Set<Activation> retained = Collections.newSetFromMap(new IdentityHashMap<>());
+        Map<Thought, Map<Integer, Integer>> retainedPerId = new IdentityHashMap<>();
+        for(WeakReference<Activation> ref: rounds) {
+            Activation act = ref.get();
+            if(act != null && retained.add(act)) {
+                retainedPerId
+                        .computeIfAbsent(act.getThought(), t -> new HashMap<>())
+                        .merge(act.getId(), 1, Integer::sum);
+            }
+        }
+
+        long activations = docs.stream().mapToLong(doc -> doc.getNumberOfActivations()).sum();
+        long additionalRounds = docs.stream().mapToLong(doc -> doc.getConvergence().getRounds()).sum();
+        int maxPerId = retainedPerId.values().stream()
+                .flatMap(perId -> perId.values().stream())
+                .mapToInt(x -> x)
+                .max()
+                .orElse(0);
+        System.out.println("docs:" + DOCS +
+                " activations:" + activations +
+                " additional rounds:" + additionalRounds +
+                " retained:" + retained.size() +
+                " superseded:" + docs.stream().mapToLong(doc -> doc.getSupersededRounds()).sum() +
+                " max retained per id:" + maxPerId);
+    }
+}
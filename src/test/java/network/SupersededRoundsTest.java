@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network;
+
+import network.aika.neuron.activation.Activation;
+import network.aika.neuron.activation.Direction;
+import network.aika.text.Document;
+import network.aika.text.TextModel;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SupersededRoundsTest {
+
+    @Test
+    public void testSupersededRoundsReleased() {
+        String txt = "the quick brown";
+        TextModel tm = new TextModel();
+
+        Set<Activation> superseded = Collections.newSetFromMap(new IdentityHashMap<>());
+        Document doc = new Document(txt) {
+            @Override
+            public void onSuperseded(Activation lastRound, Activation act) {
+                super.onSuperseded(lastRound, act);
+                superseded.add(lastRound);
+            }
+        };
+
+        // Processing after each token revises the activations of the previous tokens in new rounds.
+        int i = 0;
+        for(String t: txt.split(" ")) {
+            doc.processToken(tm, i, i + t.length(), t);
+            i += t.length() + 1;
+            doc.process();
+        }
+
+        assertFalse(superseded.isEmpty());
+        assertEquals((long) superseded.size(), doc.getSupersededRounds());
+        assertReleased(doc, superseded);
+    }
+
+    @Test
+    public void testSupersededBranchesReleased() {
+        Set<Activation> superseded = Collections.newSetFromMap(new IdentityHashMap<>());
+        Document doc = new Document("test") {
+            @Override
+            public void onSuperseded(Activation lastRound, Activation act) {
+                super.onSuperseded(lastRound, act);
+                superseded.add(lastRound);
+            }
+        };
+        new CompetitionFixture(3).processInput(doc);
+
+        assertTrue(doc.getCreatedBranches() > 0);
+        assertFalse(superseded.isEmpty());
+        assertReleased(doc, superseded);
+    }
+
+    /**
+     * The structures of the document and the branch sets no longer refer to a superseded round. Only negative
+     * links may still do so, since a negative input creates a branch that is computed from the value of that
+     * round instead of a new round of the output.
+     */
+    private static void assertReleased(Document doc, Set<Activation> superseded) {
+        for(Activation act: doc.getActivations()) {
+            assertFalse(superseded.contains(act));
+            assertTrue(act.getLastRound() == null);
+            assertFalse(superseded.contains(act.getRootBranch()));
+            for(Activation bAct: act.getBranches()) {
+                assertFalse(superseded.contains(bAct));
+            }
+
+            act.getLinks(Direction.INPUT).forEach(l -> {
+                assertTrue(l.isNegative() || !superseded.contains(l.getInput()));
+                assertFalse(superseded.contains(l.getOutput()));
+
+                Activation iAct = l.getInput();
+                iAct.getLinks(Direction.OUTPUT)
+                        .map(ol -> iAct.getOutputLinks(ol.getSynapse()).keySet())
+                        .forEach(oActs -> oActs.forEach(oAct -> assertFalse(superseded.contains(oAct))));
+            });
+        }
+    }
+
+    /**
+     * The branches of an activation refer to its current round. Only the links of a branch may still refer
+     * to a superseded round, since the branch has been computed from its value.
+     */
+    @Test
+    public void testBranchesReferToCurrentRound() {
+        Document doc = new CompetitionFixture(3).process(null);
+
+        Set<Activation> acts = Collections.newSetFromMap(new IdentityHashMap<>());
+        acts.addAll(doc.getActivations());
+
+        assertTrue(doc.getCreatedBranches() > 0);
+        for(Activation act: acts) {
+            assertTrue(acts.contains(act.getRootBranch()));
+        }
+    }
+}
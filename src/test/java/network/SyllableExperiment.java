@@ -16,11 +16,13 @@
  */
 package network;
 
+import network.aika.text.Corpus;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.stream.Stream;
 
 /**
  *
@@ -42,8 +44,9 @@ public class SyllableExperiment {
     @Test
     public void testTraining() throws IOException {
         //"/Users/lukas.molzberger/aika-ws/maerchen"
-        for(String word: Util.loadExamplesAsWords(new File("C:\\ws\\aika-syllables\\src\\main\\resources\\text\\maerchen"))) {
-            train( word + " ");
+        Corpus corpus = new Corpus(new File("C:\\ws\\aika-syllables\\src\\main\\resources\\text\\maerchen"));
+        try (Stream<String> words = corpus.words()) {
+            words.forEach(word -> train(word + " "));
         }
 
         System.out.println();
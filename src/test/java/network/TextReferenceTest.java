@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network;
+
+import network.aika.neuron.activation.Activation;
+import network.aika.neuron.activation.Direction;
+import network.aika.neuron.activation.Link;
+import network.aika.neuron.excitatory.ExcitatorySynapse;
+import network.aika.neuron.excitatory.PatternNeuron;
+import network.aika.neuron.excitatory.PatternPartNeuron;
+import network.aika.text.ByteBufferCharSequence;
+import network.aika.text.Document;
+import network.aika.text.TextModel;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TextReferenceTest {
+
+    @Test
+    public void testTextOfDerivedActivations() {
+        TextModel m = new TextModel();
+        Document doc = new Document("the quick brown");
+
+        int i = 0;
+        for(String t: doc.getContent().split(" ")) {
+            Activation tokenAct = doc.processToken(m, i, i + t.length(), t);
+            i += t.length() + 1;
+
+            // The activations derived from a token refer to the text of the token.
+            tokenAct.getLinks(Direction.OUTPUT)
+                    .map(l -> l.getOutput())
+                    .forEach(act -> assertEquals(t, Document.getText(act).toString()));
+        }
+        doc.process();
+
+        for(Activation act: doc.getActivations()) {
+            assertTrue(Document.getRange(act) != null);
+        }
+    }
+
+    @Test
+    public void testReferenceOfSeveralInputs() {
+        TextModel m = new TextModel();
+        PatternNeuron inA = new PatternNeuron(m, "A", "IN-A", true);
+        PatternNeuron inB = new PatternNeuron(m, "B", "IN-B", true);
+        PatternPartNeuron out = new PatternPartNeuron(m, "OUT", false);
+
+        ExcitatorySynapse sa = new ExcitatorySynapse(inA, out);
+        sa.setPropagate(true);
+        sa.link();
+        sa.update(10.0, false);
+
+        ExcitatorySynapse sb = new ExcitatorySynapse(inB, out);
+        sb.link();
+        sb.update(10.0, false);
+
+        Document doc = new Document("ab cd");
+        doc.addInput(inA, 0, 2);
+        Activation outAct = doc.getActivations()
+                .stream()
+                .filter(act -> act.getNeuron() == out)
+                .findAny()
+                .get();
+        assertEquals("ab", Document.getText(outAct).toString());
+
+        // The range of the output grows with each input that contributes to its range coverage.
+        Activation actB = doc.addInput(inB, 3, 5);
+        Link.link(sb, actB, outAct);
+        doc.processLinks();
+
+        assertEquals("ab cd", Document.getText(outAct).toString());
+        assertTrue(doc.getActivations(4, 5).contains(outAct));
+    }
+
+    @Test
+    public void testReferenceOfBranches() {
+        CompetitionFixture f = new CompetitionFixture(3);
+        Document doc = new Document("test");
+        doc.addInput(f.in, 0, 4);
+        doc.process();
+
+        assertTrue(doc.getCreatedBranches() > 0);
+        for(Activation act: doc.getActivations()) {
+            assertEquals("test", Document.getText(act).toString());
+            assertEquals(Document.getRange(act.getRootBranch())[0], Document.getRange(act)[0]);
+            assertEquals(Document.getRange(act.getRootBranch())[1], Document.getRange(act)[1]);
+        }
+    }
+
+    @Test
+    public void testTextOfActivationWithoutRange() {
+        TextModel m = new TextModel();
+        PatternNeuron in = new PatternNeuron(m, "A", "IN-A", true);
+
+        Document doc = new Document("abc");
+        Activation act = new Activation(doc, in);
+        act.setValue(1.0);
+        act.propagateInput();
+
+        assertNull(Document.getRange(act));
+        assertEquals("", Document.getText(act).toString());
+    }
+
+    @Test
+    public void testByteBufferContent() {
+        byte[] bytes = "--café naïve".getBytes(StandardCharsets.ISO_8859_1);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        buffer.position(2);
+
+        ByteBufferCharSequence chars = new ByteBufferCharSequence(buffer);
+        assertEquals("café naïve", chars.toString());
+        assertEquals('é', chars.charAt(3));
+        assertEquals("naïve", chars.subSequence(5, 10).toString());
+
+        TextModel m = new TextModel();
+        Document doc = new Document(buffer, null);
+        assertEquals(10, doc.length());
+        doc.processCharacters(m, 0, doc.length(), 1);
+        doc.process();
+
+        Activation act = doc.getActivations(m.lookupCharacter('é')).iterator().next();
+        assertEquals("é", Document.getText(act).toString());
+        assertEquals(3, Document.getRange(act)[0]);
+        assertEquals(1, doc.getActivations(m.lookupCharacter('ï')).size());
+        assertEquals("café", doc.getText(0, 4).toString());
+    }
+}
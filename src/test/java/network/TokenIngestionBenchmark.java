@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network;
+
+import network.aika.neuron.excitatory.PatternNeuron;
+import network.aika.text.Document;
+import network.aika.text.TextModel;
+
+import java.util.Random;
+
+/**
+ * Compares the per token ingestion loop with the batch ingestion API of the document. The equivalence of both
+ * is checked by {@link TokenIngestionTest}.
+ */
+public class TokenIngestionBenchmark {
+
+    private static final int DOC_LENGTH = 2000;
+    private static final int ROUNDS = 20;
+
+    public static void main(String[] args) {
+        TextModel m = new TextModel();
+        String txt = randomText(DOC_LENGTH);
+
+        String[] labels = new String[txt.length()];
+        int[] begins = new int[txt.length()];
+        int[] ends = new int[txt.length()];
+        for(int i = 0; i < txt.length(); i++) {
+            labels[i] = "" + txt.charAt(i);
+            begins[i] = i;
+            ends[i] = i + 1;
+        }
+        PatternNeuron[] tokens = m.lookupTokens(labels);
+
+        for(int warmup = 0; warmup < 2; warmup++) {
+            perTokenLoop(m, txt);
+            batch(m, txt, labels, begins, ends);
+        }
+
+        long perToken = 0;
+        long batch = 0;
+        for(int r = 0; r < ROUNDS; r++) {
+            perToken += perTokenLoop(m, txt);
+            batch += batch(m, txt, labels, begins, ends);
+        }
+
+        System.out.println("tokens:" + tokens.length +
+                " per token loop:" + (perToken / ROUNDS / 1000) + "us" +
+                " batch:" + (batch / ROUNDS / 1000) + "us");
+    }
+
+    private static long perTokenLoop(TextModel m, String txt) {
+        long start = System.nanoTime();
+        Document doc = new Document(txt);
+        for(int i = 0; i < doc.length(); i++) {
+            char c = doc.charAt(i);
+            doc.processToken(m, i, i + 1, "" + c);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long batch(TextModel m, String txt, String[] labels, int[] begins, int[] ends) {
+        long start = System.nanoTime();
+        Document doc = new Document(txt);
+        doc.processTokens(m, labels, begins, ends);
+        return System.nanoTime() - start;
+    }
+
+    private static String randomText(int length) {
+        Random r = new Random(1);
+        StringBuilder sb = new StringBuilder();
+        for(int i = 0; i < length; i++) {
+            sb.append((char) ('a' + r.nextInt(26)));
+        }
+        return sb.toString();
+    }
+}
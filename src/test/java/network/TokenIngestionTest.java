@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network;
+
+import network.aika.neuron.activation.Activation;
+import network.aika.neuron.excitatory.PatternNeuron;
+import network.aika.text.Document;
+import network.aika.text.TextModel;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class TokenIngestionTest {
+
+    private static final String TEXT = "the cat and the dog and the bird";
+
+    private TextModel m = new TextModel();
+
+    private String[] labels;
+    private int[] begins;
+    private int[] ends;
+
+    @Test
+    public void testBatchByLabels() {
+        tokenize();
+        String expected = perTokenLoop();
+
+        Document doc = new Document(TEXT);
+        Activation[] tokenActs = doc.processTokens(m, labels, begins, ends);
+        doc.process();
+
+        assertTokenActivations(tokenActs);
+        assertEquals(expected, doc.activationsToString());
+    }
+
+    @Test
+    public void testBatchByIds() {
+        tokenize();
+        String expected = perTokenLoop();
+
+        int[] ids = new int[labels.length];
+        for(int i = 0; i < labels.length; i++) {
+            ids[i] = m.getTokenId(labels[i]);
+        }
+
+        Document doc = new Document(TEXT);
+        Activation[] tokenActs = doc.processTokens(m, ids, begins, ends);
+        doc.process();
+
+        assertTokenActivations(tokenActs);
+        assertEquals(expected, doc.activationsToString());
+    }
+
+    @Test
+    public void testLookupTokens() {
+        tokenize();
+
+        // Repeated labels resolve to the same neuron, both by label and by id.
+        PatternNeuron[] byLabel = m.lookupTokens(labels);
+        int[] ids = new int[labels.length];
+        for(int i = 0; i < labels.length; i++) {
+            assertSame(m.lookupToken(labels[i]), byLabel[i]);
+            ids[i] = m.getTokenId(labels[i]);
+        }
+
+        PatternNeuron[] byId = m.lookupTokens(ids);
+        for(int i = 0; i < labels.length; i++) {
+            assertSame(byLabel[i], byId[i]);
+        }
+        assertSame(byLabel[0], byLabel[3]);
+    }
+
+    private void tokenize() {
+        labels = TEXT.split(" ");
+        begins = new int[labels.length];
+        ends = new int[labels.length];
+        int pos = 0;
+        for(int i = 0; i < labels.length; i++) {
+            begins[i] = pos;
+            ends[i] = pos + labels[i].length();
+            pos = ends[i] + 1;
+        }
+    }
+
+    private String perTokenLoop() {
+        Document doc = new Document(TEXT);
+        for(int i = 0; i < labels.length; i++) {
+            doc.processToken(m, begins[i], ends[i], labels[i]);
+        }
+        doc.process();
+        return doc.activationsToString();
+    }
+
+    private void assertTokenActivations(Activation[] tokenActs) {
+        assertEquals(labels.length, tokenActs.length);
+        for(int i = 0; i < labels.length; i++) {
+            assertSame(m.lookupToken(labels[i]), tokenActs[i].getNeuron());
+            assertEquals(labels[i], Document.getText(tokenActs[i]).toString());
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network;
+
+import network.aika.InMemorySuspensionHook;
+import network.aika.text.TextModel;
+import org.junit.jupiter.api.Test;
+
+import static network.aika.neuron.NeuronProvider.SuspensionMode.SAVE;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class TokenVocabularyTest {
+
+    @Test
+    public void testStoreAndLoad() {
+        InMemorySuspensionHook sh = new InMemorySuspensionHook();
+        TextModel m = new TextModel(sh);
+
+        int idA = m.getTokenId("A");
+        int idB = m.getTokenId("B");
+        m.addToN(5);
+
+        m.suspendAll(SAVE);
+        m.store();
+
+        TextModel reopened = new TextModel(sh);
+        reopened.load();
+
+        assertEquals(2, reopened.getVocabulary().size());
+        assertEquals(5.0, reopened.getN());
+        assertEquals("A", reopened.lookupToken(idA).getTokenLabel());
+        assertEquals("B", reopened.lookupToken(idB).getTokenLabel());
+        assertEquals(idB, reopened.getTokenId("B"));
+        assertEquals(2, reopened.getTokenId("C"));
+    }
+
+    @Test
+    public void testUnknownTokenId() {
+        TextModel m = new TextModel();
+        m.getTokenId("A");
+
+        assertThrows(IllegalArgumentException.class, () -> m.lookupToken(1));
+        assertThrows(IllegalArgumentException.class, () -> m.lookupToken(-1));
+    }
+}
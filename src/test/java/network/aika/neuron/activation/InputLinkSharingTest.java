@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.neuron.activation;
+
+import network.CompetitionFixture;
+import network.aika.text.Document;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The tests are placed in the package of the activation, since the input link maps are not visible outside.
+ */
+public class InputLinkSharingTest {
+
+    @Test
+    public void testRoundsShareInputLinks() {
+        // Every new round sets the ground reference of the clone, which is used to collect the pairs of rounds.
+        List<Activation[]> rounds = new ArrayList<>();
+        Document doc = new Document("test") {
+            @Override
+            public void onReferenceChanged(Activation act, Reference oldRef) {
+                super.onReferenceChanged(act, oldRef);
+                if(act.getLastRound() != null) {
+                    rounds.add(new Activation[] {act.getLastRound(), act});
+                }
+            }
+        };
+
+        new CompetitionFixture(3).processInput(doc);
+
+        // Rounds that only received a new probability have never modified their links.
+        assertTrue(rounds.stream().anyMatch(r -> r[0].inputLinks == r[1].inputLinks));
+
+        for(Activation cAct: doc.getActivations()) {
+            assertTrue(cAct.getLinks(Direction.INPUT).allMatch(l -> l.getOutput() == cAct));
+        }
+    }
+}